@@ -2,10 +2,17 @@ package com.cafefinder.app;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class Application {
     public static void main(String[] args) {
-        SpringApplication.run(Application.class, args);
+        SpringApplication app = new SpringApplication(Application.class);
+        // Records per-bean and startup-step timings for /actuator/startup
+        app.setApplicationStartup(new BufferingApplicationStartup(
+                Integer.getInteger("cafefinder.startup.timelineCapacity", 10000)));
+        app.run(args);
     }
 }
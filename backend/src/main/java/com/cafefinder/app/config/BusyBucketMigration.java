@@ -0,0 +1,73 @@
+package com.cafefinder.app.config;
+
+import com.cafefinder.app.model.BusyEntry;
+import com.cafefinder.app.model.BusyHourBucket;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// v5: hourly busy buckets, rolled up from the raw reports collected before they existed
+@Component
+public class BusyBucketMigration implements Migration {
+
+    @Override
+    public int version() {
+        return 5;
+    }
+
+    @Override
+    public String description() {
+        return "Roll up busy reports into hourly buckets";
+    }
+
+    @Override
+    public void apply(MongoTemplate mongoTemplate) {
+        mongoTemplate.indexOps(BusyHourBucket.class)
+                .ensureIndex(new Index().on("cafeId", Sort.Direction.ASC).on("hourStart", Sort.Direction.DESC));
+
+        // Roll up existing raw reports once, entirely on the server
+        if (mongoTemplate.exists(new Query(), BusyHourBucket.class) || !mongoTemplate.exists(new Query(), BusyEntry.class)) {
+            System.out.println("No busy bucket migration needed.");
+            return;
+        }
+
+        System.out.println("Rolling up busy reports into hourly buckets...");
+        Document hourStart = new Document("$dateTrunc", new Document("date", "$timestamp").append("unit", "hour"));
+        List<Document> pipeline = List.of(
+            new Document("$sort", new Document("timestamp", 1)),
+            new Document("$group", new Document("_id", new Document("cafeId", "$cafeId").append("hourStart", hourStart))
+                .append("count", new Document("$sum", 1))
+                .append("crowdSum", new Document("$sum", "$crowdLevel"))
+                .append("crowdMax", new Document("$max", "$crowdLevel"))
+                .append("latestCrowdLevel", new Document("$last", "$crowdLevel"))
+                .append("latestWaitMins", new Document("$last", "$waitMins"))
+                .append("latestTimestamp", new Document("$last", "$timestamp"))),
+            new Document("$project", new Document("_id", new Document("$concat", List.of(
+                    "$_id.cafeId", ":", new Document("$toString", new Document("$toLong",
+                            new Document("$divide", List.of(new Document("$toLong", "$_id.hourStart"), 1000)))))))
+                .append("cafeId", "$_id.cafeId")
+                .append("hourStart", "$_id.hourStart")
+                .append("hourOfDay", new Document("$hour", "$_id.hourStart"))
+                .append("count", 1)
+                .append("crowdSum", 1)
+                .append("crowdMax", 1)
+                .append("latestCrowdLevel", 1)
+                .append("latestWaitMins", 1)
+                .append("latestTimestamp", 1)),
+            new Document("$merge", new Document("into", mongoTemplate.getCollectionName(BusyHourBucket.class))
+                .append("whenMatched", "replace")
+                .append("whenNotMatched", "insert"))
+        );
+
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(BusyEntry.class))
+                .aggregate(pipeline)
+                .allowDiskUse(true)
+                .toCollection();
+        System.out.println("Busy bucket migration completed successfully!");
+    }
+}
@@ -0,0 +1,45 @@
+package com.cafefinder.app.config;
+
+import com.cafefinder.app.model.Cafe;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeospatialIndex;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// v3: GeoJSON point + 2dsphere index for $geoNear
+@Component
+public class GeoLocationMigration implements Migration {
+    private static final Document MISSING_LOCATION = new Document("location", new Document("$exists", false));
+    private static final List<Document> PIPELINE = List.of(new Document("$set", new Document("location",
+            new Document("type", "Point").append("coordinates", List.of("$longitude", "$latitude")))));
+
+    @Override
+    public int version() {
+        return 3;
+    }
+
+    @Override
+    public String description() {
+        return "Backfill GeoJSON location and 2dsphere index";
+    }
+
+    @Override
+    public String definition() {
+        return MISSING_LOCATION.toJson() + PIPELINE.get(0).toJson();
+    }
+
+    @Override
+    public void apply(MongoTemplate mongoTemplate) {
+        // Backfill the GeoJSON point from latitude/longitude on the server side
+        long migrated = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Cafe.class))
+                .updateMany(MISSING_LOCATION, PIPELINE)
+                .getModifiedCount();
+        System.out.println("Migrated " + migrated + " cafes with GeoJSON location");
+
+        mongoTemplate.indexOps(Cafe.class)
+                .ensureIndex(new GeospatialIndex("location").typed(GeoSpatialIndexType.GEO_2DSPHERE));
+    }
+}
@@ -0,0 +1,283 @@
+package com.cafefinder.app.config;
+
+import com.cafefinder.app.model.BusyEntry;
+import com.cafefinder.app.model.Cafe;
+import com.cafefinder.app.model.ClaimRequest;
+import com.cafefinder.app.model.Review;
+import com.cafefinder.app.model.User;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.model.Collation;
+import com.mongodb.client.model.CollationStrength;
+import org.bson.Document;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver.IndexDefinitionHolder;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Creates the indexes declared on the model classes (@Indexed / @CompoundIndex) right after the
+// migrations, then explains every repository query and reports the ones that would scan the whole
+// collection. Spring's own auto-index-creation stays off: it creates indexes lazily on first use
+// and a failing unique index would stop the app, whereas here a failure is logged and reported.
+// The same report is served on GET /api/admin/indexes.
+//
+// A scan is only warned about once the query actually runs (QueryMetrics), so an unused method
+// doesn't warn on every boot. The probes are written by hand and checked against the query
+// methods Spring Data registered: methods without a probe and probes without a method are logged.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class IndexVerifier implements CommandLineRunner {
+    private static final Collation CASE_INSENSITIVE = Collation.builder()
+            .locale("en").collationStrength(CollationStrength.SECONDARY).build();
+
+    // One explainable query per repository method, with the filter/sort Spring Data derives for it
+    private record Probe(String query, Class<?> entity, Document filter, Document sort, int limit, Collation collation) {
+        Probe(String query, Class<?> entity, Document filter, Document sort) {
+            this(query, entity, filter, sort, 0, null);
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final StartupWarmup warmup;
+    private final QueryMetrics queryMetrics;
+    private final ListableBeanFactory beanFactory;
+    private final boolean explainOnStartup;
+    private volatile List<Map<String, Object>> indexes = List.of();
+
+    public IndexVerifier(MongoTemplate mongoTemplate, MongoMappingContext mappingContext, StartupWarmup warmup,
+                         QueryMetrics queryMetrics, ListableBeanFactory beanFactory,
+                         @Value("${cafefinder.indexes.explainOnStartup:true}") boolean explainOnStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+        this.warmup = warmup;
+        this.queryMetrics = queryMetrics;
+        this.beanFactory = beanFactory;
+        this.explainOnStartup = explainOnStartup;
+    }
+
+    @Override
+    public void run(String... args) {
+        warmup.run("indexes", () -> {
+            ensureDeclaredIndexes();
+            if (!explainOnStartup) return;
+
+            List<Object> scans = collectionScans(explainQueries());
+            if (scans.isEmpty()) {
+                System.out.println("All repository queries are backed by an index");
+            } else {
+                System.out.println("Repository queries that would scan, warned about if used: " + scans);
+            }
+
+            Map<String, Set<String>> coverage = probeCoverage();
+            if (!coverage.get("unprobed").isEmpty()) {
+                System.err.println("Repository methods without an explain probe in IndexVerifier: " + coverage.get("unprobed"));
+            }
+            if (!coverage.get("stale").isEmpty()) {
+                System.err.println("IndexVerifier probes for methods that no longer exist: " + coverage.get("stale"));
+            }
+        });
+    }
+
+    // Result of the last index creation plus a fresh explain of every repository query
+    public Map<String, Object> report() {
+        List<Map<String, Object>> queries = explainQueries();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("indexes", indexes);
+        report.put("queries", queries);
+        report.put("collectionScans", collectionScans(queries));
+        report.putAll(probeCoverage());
+        return report;
+    }
+
+    // Query methods of the registered repositories that have no probe ("unprobed"), and probes
+    // that match no query method ("stale")
+    private Map<String, Set<String>> probeCoverage() {
+        Set<String> methods = new TreeSet<>();
+        Repositories repositories = new Repositories(beanFactory);
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            for (Method method : information.getQueryMethods()) {
+                methods.add(information.getRepositoryInterface().getSimpleName() + "." + method.getName());
+            }
+        }
+
+        Set<String> probed = new TreeSet<>();
+        for (Probe probe : probes()) probed.add(probe.query());
+
+        Set<String> unprobed = new TreeSet<>(methods);
+        unprobed.removeAll(probed);
+        Set<String> stale = new TreeSet<>(probed);
+        stale.removeAll(methods);
+
+        Map<String, Set<String>> coverage = new LinkedHashMap<>();
+        coverage.put("unprobed", unprobed);
+        coverage.put("stale", stale);
+        return coverage;
+    }
+
+    private void ensureDeclaredIndexes() {
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        List<MongoPersistentEntity<?>> entities = new ArrayList<>();
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) entities.add(entity);
+        }
+        entities.sort(Comparator.comparing(MongoPersistentEntity::getCollection));
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (MongoPersistentEntity<?> entity : entities) {
+            for (IndexDefinitionHolder holder : resolver.resolveIndexForEntity(entity)) {
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("collection", holder.getCollection());
+                result.put("keys", holder.getIndexKeys().toJson());
+                try {
+                    result.put("name", mongoTemplate.indexOps(holder.getCollection()).ensureIndex(holder));
+                    result.put("status", "ok");
+                } catch (DataAccessException e) {
+                    // Typically existing duplicates blocking a unique index; the app still works without it
+                    result.put("name", holder.getIndexOptions().getString("name"));
+                    result.put("status", "failed");
+                    result.put("error", e.getMostSpecificCause().getMessage());
+                    System.err.println("Could not create index " + holder.getIndexKeys().toJson()
+                            + " on " + holder.getCollection() + ": " + e.getMostSpecificCause().getMessage());
+                }
+                results.add(result);
+            }
+        }
+        indexes = results;
+    }
+
+    private List<Map<String, Object>> explainQueries() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Probe probe : probes()) {
+            FindIterable<Document> find = mongoTemplate.getCollection(mongoTemplate.getCollectionName(probe.entity()))
+                    .find(probe.filter());
+            if (probe.sort() != null) find.sort(probe.sort());
+            if (probe.limit() > 0) find.limit(probe.limit());
+            if (probe.collation() != null) find.collation(probe.collation());
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("query", probe.query());
+            try {
+                List<String> stages = winningPlanStages(find.explain());
+                boolean collectionScan = isCollectionScan(stages);
+                row.put("plan", String.join(" > ", stages));
+                row.put("collectionScan", collectionScan);
+                queryMetrics.recordPlan(probe.query(), !collectionScan, stages);
+            } catch (RuntimeException e) {
+                row.put("error", e.getMessage());
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static List<Object> collectionScans(List<Map<String, Object>> queries) {
+        List<Object> scans = new ArrayList<>();
+        for (Map<String, Object> row : queries) {
+            if (Boolean.TRUE.equals(row.get("collectionScan"))) scans.add(row.get("query"));
+        }
+        return scans;
+    }
+
+    // Flattens the winning plan of an explain() result into "FETCH > IXSCAN(index)" form
+    static List<String> winningPlanStages(Document explain) {
+        List<String> stages = new ArrayList<>();
+        collectStages(explain.get("queryPlanner", Document.class).get("winningPlan"), stages);
+        return stages;
+    }
+
+    static boolean isCollectionScan(List<String> stages) {
+        return stages.stream().anyMatch(stage -> stage.startsWith("COLLSCAN"));
+    }
+
+    // Classic and SBE plans nest the stages differently, so every nested document is visited
+    private static void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document doc) {
+            Object stage = doc.get("stage");
+            if (stage != null) {
+                Object index = doc.get("indexName");
+                stages.add(index != null ? stage + "(" + index + ")" : stage.toString());
+            }
+            for (Object value : doc.values()) collectStages(value, stages);
+        } else if (node instanceof List<?> list) {
+            for (Object value : list) collectStages(value, stages);
+        }
+    }
+
+    // One probe per repository query method, named "<Repository>.<method>", with the filter and
+    // sort Spring Data derives for it. Add one with every new query method; probeCoverage()
+    // reports methods that are missing here.
+    private static List<Probe> probes() {
+        String id = "000000000000000000000000";
+        Date now = new Date();
+        Document newest = new Document("createdAt", -1);
+        return List.of(
+                new Probe("ReviewRepo.findByCafeIdOrderByCreatedAtDesc", Review.class, new Document("cafeId", id), newest),
+                new Probe("ReviewRepo.findByUserIdOrderByCreatedAtDesc", Review.class, new Document("userId", id), newest),
+                new Probe("ReviewRepo.findTop10ByOrderByCreatedAtDesc", Review.class, new Document(), newest, 10, null),
+                new Probe("ReviewRepo.findByCafeIdAndOverallRatingGreaterThanEqual", Review.class,
+                        new Document("cafeId", id).append("overallRating", new Document("$gte", 4)), null),
+                new Probe("ReviewRepo.findByStatus", Review.class, new Document("status", "PENDING"), null),
+                new Probe("ReviewRepo.findByStatusOrderByCreatedAtDesc", Review.class, new Document("status", "PENDING"), newest),
+                new Probe("ReviewRepo.countByStatus", Review.class, new Document("status", "PENDING"), null),
+                new Probe("ReviewRepo.findByAdminId", Review.class, new Document("adminId", id), null),
+                new Probe("ReviewRepo.findByCafeIdAndStatusOrderByCreatedAtDesc", Review.class,
+                        new Document("cafeId", id).append("status", "APPROVED"), newest),
+                new Probe("ReviewRepo.findByUserIdAndStatusOrderByCreatedAtDesc", Review.class,
+                        new Document("userId", id).append("status", "APPROVED"), newest),
+                new Probe("ReviewRepo.findTop10ByStatusOrderByCreatedAtDesc", Review.class,
+                        new Document("status", "APPROVED"), newest, 10, null),
+
+                new Probe("BusyRepo.findByCafeIdOrderByTimestampDesc", BusyEntry.class,
+                        new Document("cafeId", id), new Document("timestamp", -1)),
+                new Probe("BusyRepo.findByCafeIdAndTimestampAfterOrderByTimestampDesc", BusyEntry.class,
+                        new Document("cafeId", id).append("timestamp", new Document("$gt", now)), new Document("timestamp", -1)),
+                new Probe("BusyRepo.findFirstByCafeIdOrderByTimestampDesc", BusyEntry.class,
+                        new Document("cafeId", id), new Document("timestamp", -1), 1, null),
+
+                new Probe("ClaimRequestRepo.findByCafeId", ClaimRequest.class, new Document("cafeId", id), null),
+                new Probe("ClaimRequestRepo.findByUserId", ClaimRequest.class, new Document("userId", id), null),
+                new Probe("ClaimRequestRepo.findByStatus", ClaimRequest.class, new Document("status", "PENDING"), null),
+                new Probe("ClaimRequestRepo.findByCafeIdAndStatus", ClaimRequest.class,
+                        new Document("cafeId", id).append("status", "PENDING"), null),
+                new Probe("ClaimRequestRepo.findByCafeIdAndUserId", ClaimRequest.class,
+                        new Document("cafeId", id).append("userId", id), null),
+                new Probe("ClaimRequestRepo.findByStatusOrderBySubmittedAtAsc", ClaimRequest.class,
+                        new Document("status", "PENDING"), new Document("submittedAt", 1)),
+
+                new Probe("UserRepo.findByUsername", User.class, new Document("username", "probe"), null),
+                new Probe("UserRepo.findByEmail", User.class, new Document("email", "probe@example.com"), null),
+                new Probe("UserRepo.existsByUsername", User.class, new Document("username", "probe"), null, 1, null),
+                new Probe("UserRepo.existsByEmail", User.class, new Document("email", "probe@example.com"), null, 1, null),
+
+                new Probe("CafeRepo.findByCityIgnoreCase", Cafe.class, new Document("city", "atlanta"), null, 0, CASE_INSENSITIVE),
+                new Probe("CafeRepo.findByNameContainingIgnoreCase", Cafe.class,
+                        new Document("name", new Document("$regex", "probe").append("$options", "i")), null),
+                new Probe("CafeRepo.findByWifiTrue", Cafe.class, new Document("wifi", true), null),
+                new Probe("CafeRepo.findBySeatingTrue", Cafe.class, new Document("seating", true), null),
+                new Probe("CafeRepo.findByWorkFriendlyTrue", Cafe.class, new Document("workFriendly", true), null),
+                new Probe("CafeRepo.findByPriceRange", Cafe.class, new Document("priceRange", "$$"), null),
+                new Probe("CafeRepo.findByAvgRatingGreaterThanEqual", Cafe.class,
+                        new Document("avgRating", new Document("$gte", 4.0)), null));
+    }
+}
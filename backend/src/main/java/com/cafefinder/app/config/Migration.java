@@ -0,0 +1,21 @@
+package com.cafefinder.app.config;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+// A one-time schema/data change applied by MigrationRunner. Versions are applied in ascending
+// order and recorded in the `migrations` collection; an applied version never runs again.
+// apply() should work on the server (updateMany, pipeline updates, $merge) rather than loading
+// documents into the app.
+public interface Migration {
+    int version();
+
+    String description();
+
+    void apply(MongoTemplate mongoTemplate);
+
+    // What the checksum is computed from. Migrations built from filters/pipelines should return
+    // them here so an edited migration is detected instead of silently diverging.
+    default String definition() {
+        return getClass().getName() + ":" + description();
+    }
+}
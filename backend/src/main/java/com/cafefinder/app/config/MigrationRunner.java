@@ -0,0 +1,216 @@
+package com.cafefinder.app.config;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Applies pending Migration beans once per database, before any other startup runner (seeding
+// relies on the schema being current). Applied versions and their checksums live in the
+// `migrations` collection, so a fully migrated database costs one small read per boot. A lease
+// in `migration_lock` makes sure only one instance migrates at a time; the holder renews it
+// while migrations run, and others wait for as long as it keeps doing so and then find nothing
+// left to do.
+@Configuration
+public class MigrationRunner {
+    private static final String MIGRATIONS = "migrations";
+    private static final String LOCK = "migration_lock";
+    private static final String LOCK_ID = "migrations";
+
+    private final MongoTemplate mongoTemplate;
+    private final long lockLeaseMs;
+    private final long lockWaitMs;
+    private final String owner = UUID.randomUUID().toString();
+    private volatile boolean lockLost;
+
+    public MigrationRunner(MongoTemplate mongoTemplate,
+                           @Value("${cafefinder.migrations.lockLeaseMs:60000}") long lockLeaseMs,
+                           @Value("${cafefinder.migrations.lockWaitMs:120000}") long lockWaitMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.lockLeaseMs = lockLeaseMs;
+        this.lockWaitMs = lockWaitMs;
+    }
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    CommandLineRunner runMigrations(List<Migration> migrations, StartupWarmup warmup) {
+        return args -> warmup.run("migrations", () -> migrate(migrations));
+    }
+
+    void migrate(List<Migration> migrations) throws InterruptedException {
+        List<Migration> ordered = new ArrayList<>(migrations);
+        ordered.sort(Comparator.comparingInt(Migration::version));
+        Set<Integer> versions = new HashSet<>();
+        for (Migration migration : ordered) {
+            if (!versions.add(migration.version())) {
+                throw new IllegalStateException("Duplicate migration version " + migration.version());
+            }
+        }
+
+        // Fast path without the lock: nothing pending
+        if (pending(ordered).isEmpty()) {
+            System.out.println("Database schema up to date (" + ordered.size() + " migrations applied)");
+            return;
+        }
+
+        acquireLock();
+        ScheduledExecutorService renewer = renewLock();
+        try {
+            // Another instance may have migrated while we waited
+            for (Migration migration : pending(ordered)) {
+                if (lockLost) {
+                    throw new IllegalStateException("Lost the migration lock; not applying migration "
+                            + migration.version());
+                }
+                System.out.println("Applying migration " + migration.version() + ": " + migration.description());
+                long started = System.currentTimeMillis();
+                migration.apply(mongoTemplate);
+                long durationMs = System.currentTimeMillis() - started;
+
+                migrations().insertOne(new Document("_id", migration.version())
+                        .append("description", migration.description())
+                        .append("checksum", checksum(migration))
+                        .append("appliedAt", new Date())
+                        .append("durationMs", durationMs)
+                        .append("appliedBy", owner));
+                System.out.println("Migration " + migration.version() + " applied in " + durationMs + "ms");
+            }
+        } finally {
+            renewer.shutdownNow();
+            releaseLock();
+        }
+    }
+
+    // Unapplied migrations, in version order. An applied migration whose definition has changed
+    // is reported but not re-run; ship the change as a new version instead.
+    private List<Migration> pending(List<Migration> ordered) {
+        Map<Integer, String> applied = new HashMap<>();
+        for (Document record : migrations().find()) {
+            applied.put(record.getInteger("_id"), record.getString("checksum"));
+        }
+
+        List<Migration> pending = new ArrayList<>();
+        for (Migration migration : ordered) {
+            String recorded = applied.get(migration.version());
+            if (recorded == null) {
+                pending.add(migration);
+            } else if (!recorded.equals(checksum(migration))) {
+                System.err.println("Migration " + migration.version() + " (" + migration.description()
+                        + ") changed after it was applied; add a new version instead of editing it");
+            }
+        }
+        return pending;
+    }
+
+    // Lease-based lock: the document is taken over once its lease has expired, so a crashed
+    // instance cannot block startup forever. A holder that keeps renewing is still migrating, so
+    // the wait restarts whenever the lease moves forward; the timeout only applies to a lock
+    // that has stopped being renewed without expiring, and is never shorter than one lease.
+    private void acquireLock() throws InterruptedException {
+        long maxWaitMs = Math.max(lockWaitMs, lockLeaseMs);
+        long deadline = System.currentTimeMillis() + maxWaitMs;
+        Date lastExpiry = null;
+        while (true) {
+            Date now = new Date();
+            try {
+                lock().findOneAndUpdate(
+                        Filters.and(Filters.eq("_id", LOCK_ID), Filters.lt("expiresAt", now)),
+                        Updates.combine(Updates.set("owner", owner), Updates.set("lockedAt", now),
+                                Updates.set("expiresAt", new Date(now.getTime() + lockLeaseMs))),
+                        new FindOneAndUpdateOptions().upsert(true));
+                return;
+            } catch (MongoCommandException e) {
+                // A duplicate key on upsert means another instance holds an unexpired lease
+                if (ErrorCategory.fromErrorCode(e.getErrorCode()) != ErrorCategory.DUPLICATE_KEY) throw e;
+            }
+
+            Document held = lock().find(Filters.eq("_id", LOCK_ID)).first();
+            Date expiry = held != null ? held.getDate("expiresAt") : null;
+            if (expiry != null && (lastExpiry == null || expiry.after(lastExpiry))) {
+                lastExpiry = expiry;
+                deadline = System.currentTimeMillis() + maxWaitMs;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Timed out waiting for the migration lock");
+            }
+            System.out.println("Waiting for another instance to finish migrations...");
+            Thread.sleep(1000);
+        }
+    }
+
+    // Pushes the lease forward every third of its length while migrations run, so a long
+    // migration isn't mistaken for a crashed instance and run twice
+    private ScheduledExecutorService renewLock() {
+        lockLost = false;
+        ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "migration-lock-renewer");
+            t.setDaemon(true);
+            return t;
+        });
+        long periodMs = Math.max(lockLeaseMs / 3, 1);
+        renewer.scheduleAtFixedRate(() -> {
+            try {
+                long matched = lock().updateOne(
+                        Filters.and(Filters.eq("_id", LOCK_ID), Filters.eq("owner", owner)),
+                        Updates.set("expiresAt", new Date(System.currentTimeMillis() + lockLeaseMs)))
+                        .getMatchedCount();
+                if (matched == 0 && !lockLost) {
+                    lockLost = true;
+                    System.err.println("Migration lock was taken over by another instance");
+                }
+            } catch (RuntimeException e) {
+                // Try again on the next tick; the lease still has two thirds left
+                System.err.println("Failed to renew the migration lock: " + e.getMessage());
+            }
+        }, periodMs, periodMs, TimeUnit.MILLISECONDS);
+        return renewer;
+    }
+
+    private void releaseLock() {
+        lock().deleteOne(Filters.and(Filters.eq("_id", LOCK_ID), Filters.eq("owner", owner)));
+    }
+
+    private MongoCollection<Document> migrations() {
+        return mongoTemplate.getCollection(MIGRATIONS);
+    }
+
+    private MongoCollection<Document> lock() {
+        return mongoTemplate.getCollection(LOCK);
+    }
+
+    private static String checksum(Migration migration) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(migration.definition().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.cafefinder.app.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Latency of every repository method and of the MongoTemplate calls in the services, as the
+// cafefinder.mongo.operation timer tagged with operation ("ReviewRepo.findByCafeId...",
+// "CafeService.ratingPage"), collection and index (yes / no / unknown).
+//
+// Whether an operation uses an index comes from explain(): IndexVerifier records it for every
+// repository method at startup, and a slow template call with a Query is explained on the spot
+// (at most once per operation per EXPLAIN_INTERVAL_MS). Calls slower than slowQueryMs are logged
+// with their plan, and the first call of an operation known to scan is logged as a warning.
+// Driver-level timings per command are in mongodb.driver.commands.
+@Component
+public class QueryMetrics {
+    public static final String UNKNOWN = "unknown";
+    private static final long EXPLAIN_INTERVAL_MS = 5 * 60_000;
+
+    private record Plan(String index, String stages, long explainedAt) {}
+
+    private final MeterRegistry meterRegistry;
+    private final MongoTemplate mongoTemplate;
+    private final long slowQueryMs;
+    private final Map<String, Plan> plans = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, String> repositoryCollections = new ConcurrentHashMap<>();
+    private final Set<String> warnedScans = ConcurrentHashMap.newKeySet();
+
+    public QueryMetrics(MeterRegistry meterRegistry, MongoTemplate mongoTemplate,
+                        @Value("${cafefinder.metrics.slowQueryMs:200}") long slowQueryMs) {
+        this.meterRegistry = meterRegistry;
+        this.mongoTemplate = mongoTemplate;
+        this.slowQueryMs = slowQueryMs;
+    }
+
+    // Times a MongoTemplate call. The query, when given, is what gets explained if the call is slow.
+    public <T> T time(String operation, Class<?> entity, Query query, Supplier<T> call) {
+        long started = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            long nanos = System.nanoTime() - started;
+            String collection = mongoTemplate.getCollectionName(entity);
+            if (query != null && isSlow(nanos) && isStale(plans.get(operation))) {
+                explain(operation, entity, query);
+            }
+            record(operation, collection, nanos);
+        }
+    }
+
+    // Called for every repository invocation (see QueryMetricsConfig)
+    void recordRepositoryCall(Class<?> repositoryInterface, String method, long nanos) {
+        String collection = repositoryCollections.computeIfAbsent(repositoryInterface, repo -> {
+            Class<?> entity = ResolvableType.forClass(repo).as(Repository.class).resolveGeneric(0);
+            return entity != null ? mongoTemplate.getCollectionName(entity) : UNKNOWN;
+        });
+        record(repositoryInterface.getSimpleName() + "." + method, collection, nanos);
+    }
+
+    // Stores the outcome of an explain() run elsewhere (IndexVerifier's repository probes)
+    void recordPlan(String operation, boolean usesIndex, List<String> stages) {
+        plans.put(operation, new Plan(usesIndex ? "yes" : "no", String.join(" > ", stages), System.currentTimeMillis()));
+    }
+
+    private void record(String operation, String collection, long nanos) {
+        Plan plan = plans.get(operation);
+        String index = plan != null ? plan.index() : UNKNOWN;
+        timers.computeIfAbsent(operation + "|" + index, key -> Timer.builder("cafefinder.mongo.operation")
+                .description("Latency of repository methods and MongoTemplate operations")
+                .tag("operation", operation)
+                .tag("collection", collection)
+                .tag("index", index)
+                .register(meterRegistry)).record(nanos, TimeUnit.NANOSECONDS);
+
+        // Once per operation, the first time something known to scan actually runs
+        if (plan != null && "no".equals(plan.index()) && warnedScans.add(operation)) {
+            System.err.println("Collection scan in use: " + operation + " on " + collection + " (plan: " + plan.stages() + ")");
+        }
+        if (isSlow(nanos)) {
+            System.err.println("Slow query " + operation + " on " + collection + ": "
+                    + TimeUnit.NANOSECONDS.toMillis(nanos) + "ms"
+                    + (plan != null ? " (plan: " + plan.stages() + ")" : ""));
+        }
+    }
+
+    private void explain(String operation, Class<?> entity, Query query) {
+        try {
+            MongoPersistentEntity<?> persistentEntity = mongoTemplate.getConverter().getMappingContext().getPersistentEntity(entity);
+            QueryMapper mapper = new QueryMapper(mongoTemplate.getConverter());
+            Document filter = mapper.getMappedObject(query.getQueryObject(), persistentEntity);
+            Document sort = mapper.getMappedSort(query.getSortObject(), persistentEntity);
+
+            Document explain = mongoTemplate.getCollection(mongoTemplate.getCollectionName(entity))
+                    .find(filter).sort(sort).explain();
+            List<String> stages = IndexVerifier.winningPlanStages(explain);
+            recordPlan(operation, !IndexVerifier.isCollectionScan(stages), stages);
+        } catch (RuntimeException e) {
+            // Explaining is best effort; remember the attempt so a failing explain isn't retried per call
+            plans.put(operation, new Plan(UNKNOWN, "explain failed: " + e.getMessage(), System.currentTimeMillis()));
+        }
+    }
+
+    private boolean isSlow(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos) >= slowQueryMs;
+    }
+
+    private static boolean isStale(Plan plan) {
+        return plan == null || System.currentTimeMillis() - plan.explainedAt() > EXPLAIN_INTERVAL_MS;
+    }
+}
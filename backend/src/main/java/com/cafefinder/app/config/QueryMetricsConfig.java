@@ -0,0 +1,32 @@
+package com.cafefinder.app.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.util.concurrent.TimeUnit;
+
+// Hooks QueryMetrics into every Spring Data repository. This replaces Boot's own
+// spring.data.repository.invocations timer (disabled in application.properties) so repository
+// and template timings share one metric and its collection/index tags.
+@Configuration
+public class QueryMetricsConfig {
+
+    // Static and lazy: post-processors are created before regular beans such as the meter registry
+    @Bean
+    static BeanPostProcessor repositoryQueryMetrics(ObjectProvider<QueryMetrics> queryMetrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(invocation ->
+                            queryMetrics.getObject().recordRepositoryCall(invocation.getRepositoryInterface(),
+                                    invocation.getMethod().getName(), invocation.getDuration(TimeUnit.NANOSECONDS))));
+                }
+                return bean;
+            }
+        };
+    }
+}
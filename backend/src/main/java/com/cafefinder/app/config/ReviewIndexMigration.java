@@ -0,0 +1,51 @@
+package com.cafefinder.app.config;
+
+import com.cafefinder.app.model.Review;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// v6: indexes behind the paginated moderation queue and status counts. Keyset paging needs a
+// createdAt on every review, so reviews without one get their ObjectId's creation time.
+@Component
+public class ReviewIndexMigration implements Migration {
+    private static final Document MISSING_CREATED_AT = new Document("createdAt", null);
+    private static final List<Document> PIPELINE = List.of(
+            new Document("$set", new Document("createdAt", new Document("$toDate", "$_id"))));
+
+    @Override
+    public int version() {
+        return 6;
+    }
+
+    @Override
+    public String description() {
+        return "Review moderation queue indexes";
+    }
+
+    @Override
+    public String definition() {
+        return MISSING_CREATED_AT.toJson() + PIPELINE.get(0).toJson() + "status,createdAt,_id;createdAt,_id";
+    }
+
+    @Override
+    public void apply(MongoTemplate mongoTemplate) {
+        long backfilled = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Review.class))
+                .updateMany(MISSING_CREATED_AT, PIPELINE)
+                .getModifiedCount();
+        if (backfilled > 0) {
+            System.out.println("Backfilled createdAt on " + backfilled + " reviews");
+        }
+
+        mongoTemplate.indexOps(Review.class).ensureIndex(new Index()
+                .on("status", Sort.Direction.ASC).on("createdAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                .named("status_createdAt"));
+        mongoTemplate.indexOps(Review.class).ensureIndex(new Index()
+                .on("createdAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                .named("createdAt"));
+    }
+}
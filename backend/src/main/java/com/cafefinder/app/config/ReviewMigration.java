@@ -1,37 +1,37 @@
 package com.cafefinder.app.config;
 
 import com.cafefinder.app.model.Review;
-import com.cafefinder.app.repo.ReviewRepo;
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
 
-import java.util.List;
+// v2: reviews written before moderation existed are treated as approved
+@Component
+public class ReviewMigration implements Migration {
+    // `in(null, "")` matches a missing status as well as a null or empty one
+    private static final Query MISSING_STATUS = new Query(Criteria.where("status").in(null, ""));
+    private static final Update APPROVE = new Update().set("status", "APPROVED");
 
-@Configuration
-public class ReviewMigration {
-    
-    @Bean
-    CommandLineRunner migrateReviews(ReviewRepo reviewRepo) {
-        return args -> {
-            // Find all reviews that don't have a status set
-            List<Review> allReviews = reviewRepo.findAll();
-            boolean anyUpdated = false;
-            
-            for (Review review : allReviews) {
-                if (review.getStatus() == null || review.getStatus().isEmpty()) {
-                    // Set existing reviews as "APPROVED" to maintain current functionality
-                    review.setStatus("APPROVED");
-                    reviewRepo.save(review);
-                    anyUpdated = true;
-                }
-            }
-            
-            if (anyUpdated) {
-                System.out.println("Migrated existing reviews to have status field - set as APPROVED");
-            } else {
-                System.out.println("No review migration needed - all reviews have status");
-            }
-        };
+    @Override
+    public int version() {
+        return 2;
+    }
+
+    @Override
+    public String description() {
+        return "Set status APPROVED on reviews without one";
+    }
+
+    @Override
+    public String definition() {
+        return MISSING_STATUS.getQueryObject().toJson() + APPROVE.getUpdateObject().toJson();
+    }
+
+    @Override
+    public void apply(MongoTemplate mongoTemplate) {
+        long migrated = mongoTemplate.updateMulti(MISSING_STATUS, APPROVE, Review.class).getModifiedCount();
+        System.out.println("Migrated " + migrated + " existing reviews to have status field - set as APPROVED");
     }
 }
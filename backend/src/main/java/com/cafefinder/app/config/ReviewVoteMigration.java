@@ -0,0 +1,82 @@
+package com.cafefinder.app.config;
+
+import com.cafefinder.app.model.Review;
+import com.cafefinder.app.service.ReviewVoteService;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// v7: likes and helpful votes counted before review_votes existed have no voter shard, so a fold
+// (which sets the counter to the sum of the shards) would wipe them. Each review gets one extra
+// "<reviewId>:<KIND>:legacy" shard holding whatever its counter has beyond the shards it already has.
+// Legacy voters are unknown, so they can't be deduplicated against later votes.
+@Component
+public class ReviewVoteMigration implements Migration {
+
+    @Override
+    public int version() {
+        return 7;
+    }
+
+    @Override
+    public String description() {
+        return "Seed legacy vote counts into review_votes";
+    }
+
+    @Override
+    public String definition() {
+        StringBuilder definition = new StringBuilder();
+        for (ReviewVoteService.Kind kind : ReviewVoteService.Kind.values()) {
+            pipeline(kind).forEach(stage -> definition.append(stage.toJson()));
+        }
+        return definition.toString();
+    }
+
+    @Override
+    public void apply(MongoTemplate mongoTemplate) {
+        mongoTemplate.indexOps(ReviewVoteService.VOTES)
+                .ensureIndex(new Index().on("reviewId", Sort.Direction.ASC).on("kind", Sort.Direction.ASC));
+        for (ReviewVoteService.Kind kind : ReviewVoteService.Kind.values()) {
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(Review.class))
+                    .aggregate(pipeline(kind)).toCollection();
+        }
+        long seeded = mongoTemplate.getCollection(ReviewVoteService.VOTES)
+                .countDocuments(new Document("_id", new Document("$regex", ":legacy$")));
+        System.out.println("Seeded " + seeded + " legacy vote shards");
+    }
+
+    private static List<Document> pipeline(ReviewVoteService.Kind kind) {
+        String counter = "$" + kind.field();
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$match", new Document(kind.field(), new Document("$gt", 0))));
+        // Votes already in shards were counted inline too; only the remainder is legacy
+        pipeline.add(new Document("$lookup", new Document("from", ReviewVoteService.VOTES)
+                .append("let", new Document("reviewId", new Document("$toString", "$_id")))
+                .append("pipeline", List.of(
+                        new Document("$match", new Document("$expr", new Document("$and", List.of(
+                                new Document("$eq", List.of("$reviewId", "$$reviewId")),
+                                new Document("$eq", List.of("$kind", kind.name())))))),
+                        new Document("$group", new Document("_id", null).append("total", new Document("$sum", "$count")))))
+                .append("as", "shards")));
+        pipeline.add(new Document("$project", new Document("_id", 0)
+                .append("reviewId", new Document("$toString", "$_id"))
+                .append("legacy", new Document("$subtract", List.of(counter,
+                        new Document("$ifNull", List.of(new Document("$arrayElemAt", List.of("$shards.total", 0)), 0)))))));
+        pipeline.add(new Document("$match", new Document("legacy", new Document("$gt", 0))));
+        pipeline.add(new Document("$project", new Document("_id", new Document("$concat", List.of("$reviewId", ":" + kind.name() + ":legacy")))
+                .append("reviewId", 1)
+                .append("kind", new Document("$literal", kind.name()))
+                .append("count", "$legacy")
+                .append("voters", new Document("$literal", List.of()))));
+        pipeline.add(new Document("$merge", new Document("into", ReviewVoteService.VOTES)
+                .append("on", "_id")
+                .append("whenMatched", "keepExisting")
+                .append("whenNotMatched", "insert")));
+        return pipeline;
+    }
+}
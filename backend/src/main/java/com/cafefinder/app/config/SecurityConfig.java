@@ -3,6 +3,7 @@ package com.cafefinder.app.config;
 import com.cafefinder.app.security.AuthEntryPointJwt;
 import com.cafefinder.app.security.AuthTokenFilter;
 import com.cafefinder.app.service.UserDetailsServiceImpl;
+import com.cafefinder.app.web.CafeController;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -66,6 +67,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(origins);
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(List.of(CafeController.NEXT_CURSOR_HEADER));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -78,6 +80,9 @@ public class SecurityConfig {
         http.csrf(csrf -> csrf.disable())
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .authorizeHttpRequests(auth -> auth
+                // Probes stay open; metrics and startup (which also accepts POST) are admin-only
+                .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/info").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/api/auth/**", "/api/*/public/**", "/api/health", "/api/admin/**").permitAll()  // TEMPORARY: Allow admin for testing
                 .anyRequest().permitAll()  // TEMPORARY: Allow all requests for development
             )
@@ -6,10 +6,17 @@ import com.cafefinder.app.repo.CafeRepo;
 import com.cafefinder.app.repo.UserRepo;
 import com.cafefinder.app.repo.ReviewRepo;
 import com.cafefinder.app.repo.BusyRepo;
-import com.cafefinder.app.service.GooglePlacesService;
+import com.cafefinder.app.service.CafeImportService;
+import com.cafefinder.app.service.PlacesIngestionService;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import java.util.*;
@@ -22,33 +29,40 @@ public class SeedData {
     }
 
     @Bean
-    CommandLineRunner init(CafeRepo cafes, UserRepo users, ReviewRepo reviews, BusyRepo busyRepo, PasswordEncoder encoder, GooglePlacesService googlePlacesService){
-        return args -> {
+    CommandLineRunner init(CafeRepo cafes, UserRepo users, ReviewRepo reviews, BusyRepo busyRepo, PasswordEncoder encoder,
+                           MongoTemplate mongoTemplate, CafeImportService cafeImport,
+                           PlacesIngestionService placesIngestion,
+                           @Value("${google.places.seed.radiusKm:20}") double seedRadiusKm,
+                           @Value("${google.places.seed.cellKm:5}") double seedCellKm,
+                           StartupWarmup warmup){
+        return args -> warmup.run("seed", () -> {
             // Create sample users if none exist
-            if(users.count() == 0){
+            if(!mongoTemplate.exists(new Query(), User.class)){
                 List<User> sampleUsers = SeedDataHelper.createSampleUsers(encoder);
-                for (User user : sampleUsers) {
-                    users.save(user);
-                }
+                users.saveAll(sampleUsers); // all new, so one batched insert
                 System.out.println("Created " + sampleUsers.size() + " sample users");
             } else {
                 // Ensure admin accounts exist even if users already exist
                 List<User> adminUsers = SeedDataHelper.createAdminUsers(encoder);
-                int createdCount = 0;
-                for (User admin : adminUsers) {
-                    if (!users.findByUsername(admin.getUsername()).isPresent()) {
-                        users.save(admin);
-                        createdCount++;
+                // One lookup for all admin usernames instead of one per account
+                Query existing = Query.query(Criteria.where("username").in(adminUsers.stream().map(User::getUsername).toList()));
+                existing.fields().include("username");
+                Set<String> existingNames = new HashSet<>();
+                for (User user : mongoTemplate.find(existing, User.class)) {
+                    existingNames.add(user.getUsername());
+                }
+                List<User> missing = adminUsers.stream().filter(admin -> !existingNames.contains(admin.getUsername())).toList();
+                if (!missing.isEmpty()) {
+                    users.saveAll(missing);
+                    for (User admin : missing) {
                         System.out.println("Created admin account: " + admin.getUsername());
                     }
-                }
-                if (createdCount > 0) {
-                    System.out.println("Created " + createdCount + " additional admin accounts");
+                    System.out.println("Created " + missing.size() + " additional admin accounts");
                 }
             }
 
             // Create sample cafes - try Google Places API first, but always fallback to static data
-            if(cafes.count() == 0){
+            if(!mongoTemplate.exists(new Query(), Cafe.class)){
                 List<Cafe> sampleCafes = null;
                 
                 // Try Google Places API only if API key is configured (optional)
@@ -56,12 +70,11 @@ public class SeedData {
                 if (apiKey != null && !apiKey.isBlank()) {
                     try {
                         System.out.println("Fetching cafes from Google Places API...");
-                        sampleCafes = googlePlacesService.searchCafes("coffee shops in Atlanta");
-                        if (sampleCafes != null && !sampleCafes.isEmpty()) {
-                            for (Cafe cafe : sampleCafes) {
-                                cafes.save(cafe);
-                            }
-                            System.out.println("Created " + sampleCafes.size() + " cafes from Google Places API");
+                        // Grid import upserts directly; fall back to static data only if nothing came back
+                        Map<String, Object> report = placesIngestion.ingestCity("Atlanta", seedRadiusKm, seedCellKm);
+                        if (((Number) report.get("inserted")).intValue() > 0) {
+                            sampleCafes = List.of();
+                            System.out.println("Created " + report.get("inserted") + " cafes from Google Places API");
                         }
                     } catch (Exception e) {
                         System.err.println("Failed to fetch cafes from Google Places API: " + e.getMessage());
@@ -73,26 +86,27 @@ public class SeedData {
                 }
                 
                 // Always use fallback if Google Places failed or API key not set
-                if (sampleCafes == null || sampleCafes.isEmpty()) {
+                if (sampleCafes == null) {
                     sampleCafes = SeedDataHelper.createSampleCafes();
-                    for (Cafe cafe : sampleCafes) {
-                        cafes.save(cafe);
-                    }
-                    System.out.println("Created " + sampleCafes.size() + " static sample cafes");
+                    CafeImportService.Result result = cafeImport.importCafes(sampleCafes);
+                    System.out.println("Created " + result.inserted() + " static sample cafes");
                 }
             } else {
-                // Update existing cafes with correct hours (including Sunday)
-                System.out.println("Updating hours for existing cafes to include Sunday...");
-                for (Cafe cafe : cafes.findAll()) {
-                    Map<Integer, String> hours = new HashMap<>();
-                    for (int i = 0; i <= 6; i++) {  // 0=Sunday through 6=Saturday
-                        hours.put(i, "7:00-19:00");
-                    }
-                    cafe.setHours(hours);
-                    cafes.save(cafe);
+                // Give cafes without Sunday hours a full week: one server-side update that fills
+                // missing days with defaults and keeps existing ones, so re-running it is a no-op
+                Document defaultHours = new Document();
+                for (int i = 0; i <= 6; i++) {  // 0=Sunday through 6=Saturday
+                    defaultHours.append(String.valueOf(i), "7:00-19:00");
+                }
+                AggregationUpdate fillHours = AggregationUpdate.from(List.of(context -> new Document("$set",
+                        new Document("hours", new Document("$mergeObjects",
+                                List.of(defaultHours, new Document("$ifNull", List.of("$hours", new Document()))))))));
+                long updated = mongoTemplate.updateMulti(Query.query(Criteria.where("hours.0").exists(false)), fillHours, Cafe.class)
+                        .getModifiedCount();
+                if (updated > 0) {
+                    System.out.println("Added Sunday hours to " + updated + " cafes");
                 }
-                System.out.println("Updated hours for all cafes");
             }
-        };
+        });
     }
 }
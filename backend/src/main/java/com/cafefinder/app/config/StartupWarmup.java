@@ -0,0 +1,139 @@
+package com.cafefinder.app.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs the startup work (migrations, seeding, cache warm-up) and records how long each step
+// took. Steps show up in /actuator/startup as "cafefinder.warmup" next to Spring's per-bean steps,
+// and in /api/health.
+//
+// With cafefinder.startup.deferWarmup=true the steps run in order on a background thread
+// instead: the app finishes starting immediately and readiness stays REFUSING_TRAFFIC until
+// the last step is done, so traffic is only routed once the data is in place. A failed step skips
+// the ones after it (seeding needs migrations) and marks the app as broken so it gets restarted.
+@Component
+@Lazy(false) // has to see the readiness event
+public class StartupWarmup {
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    private final ApplicationContext context;
+    private final ApplicationStartup applicationStartup;
+    private final boolean deferred;
+    private final Map<String, Map<String, Object>> steps = new LinkedHashMap<>();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final ExecutorService executor;
+
+    public StartupWarmup(ApplicationContext context, ApplicationStartup applicationStartup,
+                         @Value("${cafefinder.startup.deferWarmup:false}") boolean deferred) {
+        this.context = context;
+        this.applicationStartup = applicationStartup;
+        this.deferred = deferred;
+        this.executor = deferred ? Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "startup-warmup");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+    }
+
+    // Runs the step now, or queues it behind the earlier steps in deferred mode
+    public void run(String name, Task task) {
+        record(name, "pending", null, null);
+        if (!deferred) {
+            execute(name, task);
+            return;
+        }
+        outstanding.incrementAndGet();
+        executor.execute(() -> {
+            try {
+                if (hasFailures()) {
+                    record(name, "skipped", null, null);
+                } else {
+                    execute(name, task);
+                }
+            } catch (RuntimeException e) {
+                AvailabilityChangeEvent.publish(context, LivenessState.BROKEN);
+            } finally {
+                if (outstanding.decrementAndGet() == 0 && !hasFailures()) {
+                    AvailabilityChangeEvent.publish(context, ReadinessState.ACCEPTING_TRAFFIC);
+                }
+            }
+        });
+    }
+
+    // Spring Boot declares readiness once startup finishes; hold it back until warm-up is done
+    @EventListener
+    public void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+        if (deferred && event.getState() == ReadinessState.ACCEPTING_TRAFFIC && (!isComplete() || hasFailures())) {
+            AvailabilityChangeEvent.publish(context, ReadinessState.REFUSING_TRAFFIC);
+            // The last step may have finished in between
+            if (isComplete() && !hasFailures()) AvailabilityChangeEvent.publish(context, ReadinessState.ACCEPTING_TRAFFIC);
+        }
+    }
+
+    public boolean isComplete() {
+        return outstanding.get() == 0;
+    }
+
+    public synchronized boolean hasFailures() {
+        return steps.values().stream().anyMatch(step -> "failed".equals(step.get("status")));
+    }
+
+    public synchronized List<Map<String, Object>> progress() {
+        List<Map<String, Object>> copy = new ArrayList<>(steps.size());
+        for (Map<String, Object> step : steps.values()) copy.add(new LinkedHashMap<>(step));
+        return copy;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) executor.shutdownNow();
+    }
+
+    private void execute(String name, Task task) {
+        StartupStep step = applicationStartup.start("cafefinder.warmup").tag("step", name);
+        record(name, "running", null, null);
+        long started = System.currentTimeMillis();
+        try {
+            task.run();
+            record(name, "done", System.currentTimeMillis() - started, null);
+        } catch (Exception e) {
+            record(name, "failed", System.currentTimeMillis() - started, e.getMessage());
+            step.tag("error", String.valueOf(e.getMessage()));
+            System.err.println("Startup step " + name + " failed: " + e.getMessage());
+            // In eager mode this stops startup, as a failing runner always did
+            throw e instanceof RuntimeException re ? re : new IllegalStateException(e);
+        } finally {
+            step.end();
+        }
+        System.out.println("Startup step " + name + " finished in " + (System.currentTimeMillis() - started) + "ms");
+    }
+
+    private synchronized void record(String name, String status, Long durationMs, String error) {
+        Map<String, Object> step = new LinkedHashMap<>();
+        step.put("step", name);
+        step.put("status", status);
+        if (durationMs != null) step.put("durationMs", durationMs);
+        if (error != null) step.put("error", error);
+        steps.put(name, step);
+    }
+}
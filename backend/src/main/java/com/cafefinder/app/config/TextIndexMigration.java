@@ -0,0 +1,40 @@
+package com.cafefinder.app.config;
+
+import com.cafefinder.app.model.Cafe;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.stereotype.Component;
+
+// v4: weighted text index backing relevance-ranked cafe search (one text index per collection)
+@Component
+public class TextIndexMigration implements Migration {
+    private static final TextIndexDefinition TEXT_INDEX = new TextIndexDefinition.TextIndexDefinitionBuilder()
+            .named("cafe_text")
+            .onField("name", 10F)
+            .onField("tags", 5F)
+            .onField("coffeeTypes", 3F)
+            .onField("menuItems.name", 2F)
+            .onField("description", 1F)
+            .build();
+
+    @Override
+    public int version() {
+        return 4;
+    }
+
+    @Override
+    public String description() {
+        return "Create weighted cafe text index";
+    }
+
+    @Override
+    public String definition() {
+        return TEXT_INDEX.getIndexKeys().toJson() + TEXT_INDEX.getIndexOptions().toJson();
+    }
+
+    @Override
+    public void apply(MongoTemplate mongoTemplate) {
+        mongoTemplate.indexOps(Cafe.class).ensureIndex(TEXT_INDEX);
+        System.out.println("Cafe text index ready");
+    }
+}
@@ -0,0 +1,124 @@
+package com.cafefinder.app.dto;
+
+import com.cafefinder.app.model.Cafe;
+
+import java.util.List;
+
+// Card-sized view of a cafe for list endpoints (search, nearby, popular). Menu, hours, photos,
+// socials and claim/business fields are only served by /api/cafes/public/{id}.
+public class CafeSummary {
+    // Fields read from Mongo for list queries; keep in sync with the properties below
+    public static final String[] FIELDS = {
+        "name", "description", "address", "city", "state", "latitude", "longitude", "phone",
+        "priceRange", "avgRating", "reviewsCount", "currentStatus", "currentWaitTime",
+        "wifi", "seating", "workFriendly", "petFriendly", "tags"
+    };
+
+    private String id;
+    private String name;
+    private String description;
+    private String address;
+    private String city;
+    private String state;
+    private double latitude;
+    private double longitude;
+    private Double distanceKm;
+    private String phone;
+    private String priceRange;
+    private double avgRating;
+    private int reviewsCount;
+    private String currentStatus;
+    private Integer currentWaitTime;
+    private boolean wifi;
+    private boolean seating;
+    private boolean workFriendly;
+    private boolean petFriendly;
+    private List<String> tags;
+
+    public CafeSummary() {}
+
+    public static CafeSummary from(Cafe cafe) {
+        CafeSummary summary = new CafeSummary();
+        summary.id = cafe.getId();
+        summary.name = cafe.getName();
+        summary.description = cafe.getDescription();
+        summary.address = cafe.getAddress();
+        summary.city = cafe.getCity();
+        summary.state = cafe.getState();
+        summary.latitude = cafe.getLatitude();
+        summary.longitude = cafe.getLongitude();
+        summary.distanceKm = cafe.getDistanceKm();
+        summary.phone = cafe.getPhone();
+        summary.priceRange = cafe.getPriceRange();
+        summary.avgRating = cafe.getAvgRating();
+        summary.reviewsCount = cafe.getReviewsCount();
+        summary.currentStatus = cafe.getCurrentStatus();
+        summary.currentWaitTime = cafe.getCurrentWaitTime();
+        summary.wifi = cafe.isWifi();
+        summary.seating = cafe.isSeating();
+        summary.workFriendly = cafe.isWorkFriendly();
+        summary.petFriendly = cafe.isPetFriendly();
+        summary.tags = cafe.getTags();
+        return summary;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getAddress() { return address; }
+    public void setAddress(String address) { this.address = address; }
+
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+
+    public double getLatitude() { return latitude; }
+    public void setLatitude(double latitude) { this.latitude = latitude; }
+
+    public double getLongitude() { return longitude; }
+    public void setLongitude(double longitude) { this.longitude = longitude; }
+
+    public Double getDistanceKm() { return distanceKm; }
+    public void setDistanceKm(Double distanceKm) { this.distanceKm = distanceKm; }
+
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+
+    public String getPriceRange() { return priceRange; }
+    public void setPriceRange(String priceRange) { this.priceRange = priceRange; }
+
+    public double getAvgRating() { return avgRating; }
+    public void setAvgRating(double avgRating) { this.avgRating = avgRating; }
+
+    public int getReviewsCount() { return reviewsCount; }
+    public void setReviewsCount(int reviewsCount) { this.reviewsCount = reviewsCount; }
+
+    public String getCurrentStatus() { return currentStatus; }
+    public void setCurrentStatus(String currentStatus) { this.currentStatus = currentStatus; }
+
+    public Integer getCurrentWaitTime() { return currentWaitTime; }
+    public void setCurrentWaitTime(Integer currentWaitTime) { this.currentWaitTime = currentWaitTime; }
+
+    public boolean isWifi() { return wifi; }
+    public void setWifi(boolean wifi) { this.wifi = wifi; }
+
+    public boolean isSeating() { return seating; }
+    public void setSeating(boolean seating) { this.seating = seating; }
+
+    public boolean isWorkFriendly() { return workFriendly; }
+    public void setWorkFriendly(boolean workFriendly) { this.workFriendly = workFriendly; }
+
+    public boolean isPetFriendly() { return petFriendly; }
+    public void setPetFriendly(boolean petFriendly) { this.petFriendly = petFriendly; }
+
+    public List<String> getTags() { return tags; }
+    public void setTags(List<String> tags) { this.tags = tags; }
+}
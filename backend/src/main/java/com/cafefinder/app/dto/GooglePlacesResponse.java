@@ -11,6 +11,7 @@ public class GooglePlacesResponse {
         private Geometry geometry;
         private String name;
         private String formatted_address;
+        private String vicinity; // nearby search returns this instead of formatted_address
         private String place_id;
         private List<String> types;
         private double rating;
@@ -68,6 +69,8 @@ public class GooglePlacesResponse {
         public void setName(String name) { this.name = name; }
         public String getFormatted_address() { return formatted_address; }
         public void setFormatted_address(String formatted_address) { this.formatted_address = formatted_address; }
+        public String getVicinity() { return vicinity; }
+        public void setVicinity(String vicinity) { this.vicinity = vicinity; }
         public String getPlace_id() { return place_id; }
         public void setPlace_id(String place_id) { this.place_id = place_id; }
         public List<String> getTypes() { return types; }
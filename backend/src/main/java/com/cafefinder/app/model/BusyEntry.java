@@ -1,10 +1,12 @@
 package com.cafefinder.app.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.Instant;
 
 @Document(collection="busy_hours")
+@CompoundIndex(name = "cafeId_timestamp", def = "{'cafeId': 1, 'timestamp': -1}")
 public class BusyEntry {
     @Id
     private String id;
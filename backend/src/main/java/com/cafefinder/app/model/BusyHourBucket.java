@@ -0,0 +1,46 @@
+package com.cafefinder.app.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+
+// One document per cafe per UTC hour, rolled up as busy reports arrive
+@Document(collection="busy_hour_buckets")
+public class BusyHourBucket {
+    @Id
+    private String id; // cafeId + ":" + hourStart epoch seconds
+    private String cafeId;
+    private Instant hourStart;
+    private int hourOfDay; // 0..23 UTC
+    private long count;
+    private long crowdSum;
+    private int crowdMax;
+    private int latestCrowdLevel;
+    private Integer latestWaitMins;
+    private Instant latestTimestamp;
+
+    public static String bucketId(String cafeId, Instant hourStart) {
+        return cafeId + ":" + hourStart.getEpochSecond();
+    }
+
+    public String getId(){return id;}
+    public void setId(String id){this.id=id;}
+    public String getCafeId(){return cafeId;}
+    public void setCafeId(String c){this.cafeId=c;}
+    public Instant getHourStart(){return hourStart;}
+    public void setHourStart(Instant h){this.hourStart=h;}
+    public int getHourOfDay(){return hourOfDay;}
+    public void setHourOfDay(int h){this.hourOfDay=h;}
+    public long getCount(){return count;}
+    public void setCount(long c){this.count=c;}
+    public long getCrowdSum(){return crowdSum;}
+    public void setCrowdSum(long s){this.crowdSum=s;}
+    public int getCrowdMax(){return crowdMax;}
+    public void setCrowdMax(int m){this.crowdMax=m;}
+    public int getLatestCrowdLevel(){return latestCrowdLevel;}
+    public void setLatestCrowdLevel(int c){this.latestCrowdLevel=c;}
+    public Integer getLatestWaitMins(){return latestWaitMins;}
+    public void setLatestWaitMins(Integer w){this.latestWaitMins=w;}
+    public Instant getLatestTimestamp(){return latestTimestamp;}
+    public void setLatestTimestamp(Instant t){this.latestTimestamp=t;}
+}
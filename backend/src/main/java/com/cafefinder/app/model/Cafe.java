@@ -1,6 +1,10 @@
 package com.cafefinder.app.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.List;
 import java.util.Map;
@@ -12,6 +16,9 @@ public class Cafe {
     private String name;
     private String description;
     private String address;
+    // Case-insensitive (strength 2) so CafeRepo.findByCityIgnoreCase can use it; queries must
+    // pass the same collation
+    @Indexed(name = "city_ci", collation = "{'locale': 'en', 'strength': 2}")
     private String city;
     private String state;
     private String zipCode;
@@ -20,6 +27,17 @@ public class Cafe {
     private double latitude;
     private double longitude;
     
+    // Google Places place_id for imported cafes; natural key for re-imports
+    private String placeId;
+    
+    // GeoJSON mirror of latitude/longitude, backs the 2dsphere index
+    @JsonIgnore
+    private GeoJsonPoint location;
+    
+    // Distance from the search point, only set on radius queries
+    @Transient
+    private Double distanceKm;
+    
     // Business hours - day of week (0=Sunday) to open/close times
     private Map<Integer, String> hours; // e.g., {1: "7:00-20:00", 2: "7:00-20:00"}
     
@@ -47,8 +65,15 @@ public class Cafe {
     private double avgRating;
     private double avgCoffeeRating;
     private double avgTasteRating;
+    private double avgAmbianceRating;
+    private double avgServiceRating;
+    private double avgValueRating;
     private int reviewsCount;
     
+    // Server-managed running totals behind the averages above
+    @JsonIgnore
+    private RatingTotals ratingTotals;
+    
     // Current status
     private String currentStatus; // "open", "closed", "busy"
     private Integer currentWaitTime; // minutes
@@ -80,6 +105,9 @@ public class Cafe {
     public String getCity() { return city; }
     public void setCity(String city) { this.city = city; }
     
+    public String getPlaceId() { return placeId; }
+    public void setPlaceId(String placeId) { this.placeId = placeId; }
+    
     public String getState() { return state; }
     public void setState(String state) { this.state = state; }
     
@@ -93,10 +121,18 @@ public class Cafe {
     public void setWebsite(String website) { this.website = website; }
     
     public double getLatitude() { return latitude; }
-    public void setLatitude(double latitude) { this.latitude = latitude; }
+    public void setLatitude(double latitude) { this.latitude = latitude; syncLocation(); }
     
     public double getLongitude() { return longitude; }
-    public void setLongitude(double longitude) { this.longitude = longitude; }
+    public void setLongitude(double longitude) { this.longitude = longitude; syncLocation(); }
+    
+    public GeoJsonPoint getLocation() { return location; }
+    public void setLocation(GeoJsonPoint location) { this.location = location; }
+    
+    private void syncLocation() { this.location = new GeoJsonPoint(longitude, latitude); }
+    
+    public Double getDistanceKm() { return distanceKm; }
+    public void setDistanceKm(Double distanceKm) { this.distanceKm = distanceKm; }
     
     public Map<Integer, String> getHours() { return hours; }
     public void setHours(Map<Integer, String> hours) { this.hours = hours; }
@@ -152,6 +188,18 @@ public class Cafe {
     public double getAvgTasteRating() { return avgTasteRating; }
     public void setAvgTasteRating(double avgTasteRating) { this.avgTasteRating = avgTasteRating; }
     
+    public double getAvgAmbianceRating() { return avgAmbianceRating; }
+    public void setAvgAmbianceRating(double avgAmbianceRating) { this.avgAmbianceRating = avgAmbianceRating; }
+    
+    public double getAvgServiceRating() { return avgServiceRating; }
+    public void setAvgServiceRating(double avgServiceRating) { this.avgServiceRating = avgServiceRating; }
+    
+    public double getAvgValueRating() { return avgValueRating; }
+    public void setAvgValueRating(double avgValueRating) { this.avgValueRating = avgValueRating; }
+    
+    public RatingTotals getRatingTotals() { return ratingTotals; }
+    public void setRatingTotals(RatingTotals ratingTotals) { this.ratingTotals = ratingTotals; }
+    
     public int getReviewsCount() { return reviewsCount; }
     public void setReviewsCount(int reviewsCount) { this.reviewsCount = reviewsCount; }
     
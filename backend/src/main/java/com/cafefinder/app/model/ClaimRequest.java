@@ -1,10 +1,18 @@
 package com.cafefinder.app.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.Instant;
 
 @Document(collection = "claim_requests")
+@CompoundIndexes({
+    // One claim per user per cafe; the prefix also serves lookups by cafe
+    @CompoundIndex(name = "cafeId_userId", def = "{'cafeId': 1, 'userId': 1}", unique = true),
+    @CompoundIndex(name = "userId", def = "{'userId': 1}"),
+    @CompoundIndex(name = "status_submittedAt", def = "{'status': 1, 'submittedAt': 1}")
+})
 public class ClaimRequest {
     @Id
     private String id;
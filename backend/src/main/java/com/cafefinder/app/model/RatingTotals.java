@@ -0,0 +1,60 @@
+package com.cafefinder.app.model;
+
+import java.time.Instant;
+
+// Running sums and counts per rating dimension, embedded in Cafe.
+// Maintained with atomic pipeline updates; the avg* fields on Cafe are derived from these.
+public class RatingTotals {
+    private long overallSum;
+    private long overallCount;
+    private long coffeeSum;
+    private long coffeeCount;
+    private long tasteSum;
+    private long tasteCount;
+    private long ambianceSum;
+    private long ambianceCount;
+    private long serviceSum;
+    private long serviceCount;
+    private long valueSum;
+    private long valueCount;
+    private Instant recomputedAt; // last full recompute that touched this cafe
+
+    public long getOverallSum() { return overallSum; }
+    public void setOverallSum(long overallSum) { this.overallSum = overallSum; }
+
+    public long getOverallCount() { return overallCount; }
+    public void setOverallCount(long overallCount) { this.overallCount = overallCount; }
+
+    public long getCoffeeSum() { return coffeeSum; }
+    public void setCoffeeSum(long coffeeSum) { this.coffeeSum = coffeeSum; }
+
+    public long getCoffeeCount() { return coffeeCount; }
+    public void setCoffeeCount(long coffeeCount) { this.coffeeCount = coffeeCount; }
+
+    public long getTasteSum() { return tasteSum; }
+    public void setTasteSum(long tasteSum) { this.tasteSum = tasteSum; }
+
+    public long getTasteCount() { return tasteCount; }
+    public void setTasteCount(long tasteCount) { this.tasteCount = tasteCount; }
+
+    public long getAmbianceSum() { return ambianceSum; }
+    public void setAmbianceSum(long ambianceSum) { this.ambianceSum = ambianceSum; }
+
+    public long getAmbianceCount() { return ambianceCount; }
+    public void setAmbianceCount(long ambianceCount) { this.ambianceCount = ambianceCount; }
+
+    public long getServiceSum() { return serviceSum; }
+    public void setServiceSum(long serviceSum) { this.serviceSum = serviceSum; }
+
+    public long getServiceCount() { return serviceCount; }
+    public void setServiceCount(long serviceCount) { this.serviceCount = serviceCount; }
+
+    public long getValueSum() { return valueSum; }
+    public void setValueSum(long valueSum) { this.valueSum = valueSum; }
+
+    public long getValueCount() { return valueCount; }
+    public void setValueCount(long valueCount) { this.valueCount = valueCount; }
+
+    public Instant getRecomputedAt() { return recomputedAt; }
+    public void setRecomputedAt(Instant recomputedAt) { this.recomputedAt = recomputedAt; }
+}
@@ -1,11 +1,22 @@
 package com.cafefinder.app.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.Instant;
 import java.util.List;
 
 @Document(collection="reviews")
+@CompoundIndexes({
+    // Per-cafe and per-user listings, newest first (public pages filter on status as well)
+    @CompoundIndex(name = "cafeId_status_createdAt", def = "{'cafeId': 1, 'status': 1, 'createdAt': -1}"),
+    @CompoundIndex(name = "cafeId_createdAt", def = "{'cafeId': 1, 'createdAt': -1}"),
+    @CompoundIndex(name = "userId_status_createdAt", def = "{'userId': 1, 'status': 1, 'createdAt': -1}"),
+    // Moderation queue and recent reviews (also created by ReviewIndexMigration)
+    @CompoundIndex(name = "status_createdAt", def = "{'status': 1, 'createdAt': 1, '_id': 1}"),
+    @CompoundIndex(name = "createdAt", def = "{'createdAt': 1, '_id': 1}")
+})
 public class Review {
     @Id
     private String id;
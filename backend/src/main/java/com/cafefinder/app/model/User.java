@@ -1,6 +1,7 @@
 package com.cafefinder.app.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.Set;
 import java.util.List;
@@ -10,7 +11,9 @@ import java.time.Instant;
 public class User {
     @Id
     private String id;
+    @Indexed(unique = true)
     private String username;
+    @Indexed(unique = true, sparse = true)
     private String email;
     private String passwordHash;
     private Set<String> roles; // USER, OWNER, ADMIN, LOCAL_GUIDE
@@ -2,9 +2,13 @@ package com.cafefinder.app.repo;
 
 import com.cafefinder.app.model.Cafe;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import java.util.List;
 
 public interface CafeRepo extends MongoRepository<Cafe, String> {
+    // Exact match under the city_ci collation instead of a derived case-insensitive regex, which
+    // cannot use an index
+    @Query(value = "{ 'city': ?0 }", collation = "{ 'locale': 'en', 'strength': 2 }")
     List<Cafe> findByCityIgnoreCase(String city);
     List<Cafe> findByNameContainingIgnoreCase(String q);
     List<Cafe> findByWifiTrue();
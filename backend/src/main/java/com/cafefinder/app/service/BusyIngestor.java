@@ -0,0 +1,212 @@
+package com.cafefinder.app.service;
+
+import com.cafefinder.app.model.BusyEntry;
+import com.cafefinder.app.model.Cafe;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Write-behind ingestion for busy reports. Requests only enqueue; a single flusher thread
+// drains the queue in batches and writes each batch with a handful of bulk operations:
+// one cafe lookup, one bulk insert, one bucket bulk upsert and one cafe status bulk $set.
+// Every step is safe to repeat, so a batch that fails to write is retried with backoff before
+// its reports are counted as lost.
+@Service
+public class BusyIngestor {
+    private final MongoTemplate mongoTemplate;
+    private final BusyService busyService;
+    private final CrowdBroadcaster broadcaster;
+    private final CafeCache cafeCache;
+    private final BlockingQueue<BusyEntry> queue;
+    private final int batchSize;
+    private final long lingerMs;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter rejected;
+    private final Counter unknownCafe;
+    private final Counter failed;
+
+    public BusyIngestor(MongoTemplate mongoTemplate, BusyService busyService, CrowdBroadcaster broadcaster,
+                        CafeCache cafeCache, MeterRegistry meterRegistry,
+                        @Value("${cafefinder.busy.ingest.queueCapacity:10000}") int queueCapacity,
+                        @Value("${cafefinder.busy.ingest.batchSize:500}") int batchSize,
+                        @Value("${cafefinder.busy.ingest.lingerMs:200}") long lingerMs,
+                        @Value("${cafefinder.busy.ingest.maxAttempts:3}") int maxAttempts,
+                        @Value("${cafefinder.busy.ingest.retryBackoffMs:500}") long retryBackoffMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.busyService = busyService;
+        this.broadcaster = broadcaster;
+        this.cafeCache = cafeCache;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.retryBackoffMs = retryBackoffMs;
+
+        Gauge.builder("cafefinder.busy.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Busy reports waiting to be written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("cafefinder.busy.ingest.flush")
+                .description("Time to write one batch of busy reports")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("cafefinder.busy.ingest.batch.size")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("cafefinder.busy.ingest.rejected")
+                .description("Reports refused because the queue was full")
+                .register(meterRegistry);
+        this.unknownCafe = Counter.builder("cafefinder.busy.ingest.unknown.cafe")
+                .description("Reports dropped at flush time because the cafe does not exist")
+                .register(meterRegistry);
+        this.failed = Counter.builder("cafefinder.busy.ingest.failed")
+                .description("Reports lost because their batch failed to write after all retries")
+                .register(meterRegistry);
+
+        this.flusher = new Thread(this::runFlusher, "busy-ingest");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    // Returns false when the queue is full or the ingestor is shutting down, so the caller can
+    // shed load; nothing accepted after shutdown would be written
+    public boolean enqueue(BusyEntry entry) {
+        if (running && queue.offer(entry)) return true;
+        rejected.increment();
+        return false;
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // The flusher notices within one poll interval, then writes what is left in the queue
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void runFlusher() {
+        List<BusyEntry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                BusyEntry first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // Give a burst a short window to fill the batch before writing
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) break;
+                    BusyEntry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                break;
+            }
+            batch.clear();
+        }
+
+        // Write whatever was accepted before shutdown
+        queue.drainTo(batch);
+        for (int from = 0; from < batch.size(); from += batchSize) {
+            flush(batch.subList(from, Math.min(batch.size(), from + batchSize)));
+        }
+    }
+
+    // Retries with exponential backoff; this holds up the flusher while it waits, and the queue
+    // absorbs the reports arriving meanwhile
+    private void flush(List<BusyEntry> batch) {
+        if (batch.isEmpty()) return;
+        batchSizes.record(batch.size());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                flushTimer.record(() -> write(batch));
+                return;
+            } catch (Exception e) {
+                if (attempt == maxAttempts) {
+                    failed.increment(batch.size());
+                    System.err.println("Failed to write " + batch.size() + " busy reports after " + attempt
+                            + " attempts: " + e.getMessage());
+                    return;
+                }
+                System.err.println("Writing " + batch.size() + " busy reports failed, retrying: " + e.getMessage());
+            }
+            try {
+                Thread.sleep(retryBackoffMs << (attempt - 1));
+            } catch (InterruptedException e) {
+                failed.increment(batch.size());
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void write(List<BusyEntry> batch) {
+        // One lookup validates every cafe in the batch and fetches coordinates for broadcasting
+        List<String> cafeIds = batch.stream().map(BusyEntry::getCafeId).distinct().toList();
+        Query cafeQuery = Query.query(Criteria.where("id").in(cafeIds));
+        cafeQuery.fields().include("latitude").include("longitude");
+        Map<String, Cafe> cafes = new LinkedHashMap<>();
+        for (Cafe cafe : mongoTemplate.find(cafeQuery, Cafe.class)) {
+            cafes.put(cafe.getId(), cafe);
+        }
+
+        List<BusyEntry> valid = new ArrayList<>(batch.size());
+        Map<String, BusyEntry> latestByCafe = new LinkedHashMap<>();
+        for (BusyEntry entry : batch) {
+            if (!cafes.containsKey(entry.getCafeId())) {
+                unknownCafe.increment();
+                continue;
+            }
+            valid.add(entry);
+            latestByCafe.merge(entry.getCafeId(), entry,
+                    (a, b) -> b.getTimestamp().isBefore(a.getTimestamp()) ? a : b);
+        }
+        if (valid.isEmpty()) return;
+
+        busyService.recordAll(valid);
+
+        BulkOperations statusUpdates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Cafe.class);
+        latestByCafe.forEach((cafeId, latest) -> statusUpdates.updateOne(
+                Query.query(Criteria.where("id").is(cafeId)),
+                new Update()
+                        .set("currentStatus", BusyService.crowdStatus(latest.getCrowdLevel()))
+                        .set("currentWaitTime", latest.getWaitMins())));
+        statusUpdates.execute();
+        cafeCache.invalidate(latestByCafe.keySet());
+
+        latestByCafe.forEach((cafeId, latest) -> {
+            Cafe cafe = cafes.get(cafeId);
+            broadcaster.publish(cafeId, cafe.getLatitude(), cafe.getLongitude(),
+                    BusyService.statusOf(latest.getCrowdLevel(), latest.getWaitMins(), latest.getTimestamp()));
+        });
+    }
+}
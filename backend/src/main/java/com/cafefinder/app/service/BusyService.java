@@ -0,0 +1,158 @@
+package com.cafefinder.app.service;
+
+import com.cafefinder.app.model.BusyEntry;
+import com.cafefinder.app.model.BusyHourBucket;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class BusyService {
+    private static final int DUPLICATE_KEY = 11000;
+    // Buckets remember this many recent writes so a retried one is not counted twice
+    private static final int APPLIED_WRITES_KEPT = 20;
+
+    private final MongoTemplate mongoTemplate;
+
+    public BusyService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Inserts the raw reports in one bulk insert and folds them into hourly buckets with
+    // one upsert per (cafe, hour), applied as a single unordered bulk write.
+    //
+    // Safe to call again with the same entries after a failure. Reports get their ids up front,
+    // so ones that were already inserted come back as duplicate keys. Each bucket write is
+    // tagged with the id of its first report and skipped where the bucket already carries the
+    // tag; as with review votes, the conditional upsert then hits the bucket's _id instead.
+    public void recordAll(List<BusyEntry> entries) {
+        if (entries.isEmpty()) return;
+        for (BusyEntry entry : entries) {
+            if (entry.getId() == null) entry.setId(new ObjectId().toHexString());
+        }
+        BulkOperations inserts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BusyEntry.class);
+        inserts.insert(entries);
+        executeIgnoringDuplicates(inserts);
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BusyHourBucket.class);
+        groupByBucket(entries).forEach((bucketId, bucketEntries) -> {
+            String writeId = bucketEntries.get(0).getId();
+            Update update = bucketUpdate(bucketEntries);
+            update.push("appliedWrites").slice(-APPLIED_WRITES_KEPT).each(writeId);
+            bulk.upsert(Query.query(Criteria.where("id").is(bucketId).and("appliedWrites").ne(writeId)), update);
+        });
+        executeIgnoringDuplicates(bulk);
+    }
+
+    private static void executeIgnoringDuplicates(BulkOperations bulk) {
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) throw e;
+        }
+    }
+
+    // Reports keyed by their (cafe, hour) bucket id, in arrival order
+    static Map<String, List<BusyEntry>> groupByBucket(List<BusyEntry> entries) {
+        Map<String, List<BusyEntry>> byBucket = new LinkedHashMap<>();
+        for (BusyEntry entry : entries) {
+            Instant hourStart = entry.getTimestamp().truncatedTo(ChronoUnit.HOURS);
+            byBucket.computeIfAbsent(BusyHourBucket.bucketId(entry.getCafeId(), hourStart), k -> new ArrayList<>()).add(entry);
+        }
+        return byBucket;
+    }
+
+    // Entries must all belong to the same cafe and hour
+    Update bucketUpdate(List<BusyEntry> entries) {
+        BusyEntry first = entries.get(0);
+        BusyEntry latest = first;
+        long crowdSum = 0;
+        int crowdMax = 0;
+        for (BusyEntry entry : entries) {
+            crowdSum += entry.getCrowdLevel();
+            crowdMax = Math.max(crowdMax, entry.getCrowdLevel());
+            if (entry.getTimestamp().isAfter(latest.getTimestamp())) latest = entry;
+        }
+
+        Instant hourStart = first.getTimestamp().truncatedTo(ChronoUnit.HOURS);
+        return new Update()
+                .setOnInsert("cafeId", first.getCafeId())
+                .setOnInsert("hourStart", hourStart)
+                .setOnInsert("hourOfDay", hourStart.atZone(ZoneOffset.UTC).getHour())
+                .inc("count", entries.size())
+                .inc("crowdSum", crowdSum)
+                .max("crowdMax", crowdMax)
+                .set("latestCrowdLevel", latest.getCrowdLevel())
+                .set("latestWaitMins", latest.getWaitMins())
+                .set("latestTimestamp", latest.getTimestamp());
+    }
+
+    // Latest report within the window, read from the newest bucket only
+    public Map<String, Object> currentStatus(String cafeId, Instant since) {
+        Query query = Query.query(Criteria.where("cafeId").is(cafeId)
+                        .and("hourStart").gte(since.truncatedTo(ChronoUnit.HOURS)))
+                .with(Sort.by(Sort.Direction.DESC, "hourStart"))
+                .limit(1);
+        BusyHourBucket latest = mongoTemplate.findOne(query, BusyHourBucket.class);
+
+        if (latest == null || latest.getLatestTimestamp().isBefore(since)) {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("status", "unknown");
+            status.put("crowdLevel", 0);
+            status.put("waitTime", null);
+            status.put("lastUpdated", null);
+            return status;
+        }
+
+        return statusOf(latest.getLatestCrowdLevel(), latest.getLatestWaitMins(), latest.getLatestTimestamp());
+    }
+
+    public static Map<String, Object> statusOf(int crowdLevel, Integer waitMins, Instant lastUpdated) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("status", crowdStatus(crowdLevel));
+        status.put("crowdLevel", crowdLevel);
+        status.put("waitTime", waitMins);
+        status.put("lastUpdated", lastUpdated);
+        return status;
+    }
+
+    // Average crowd level per UTC hour of day, grouped server-side over at most 24 * days buckets
+    public Map<Integer, Double> hourlyTrends(String cafeId, Instant since) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("cafeId").is(cafeId)
+                        .and("hourStart").gte(since.truncatedTo(ChronoUnit.HOURS))),
+                Aggregation.group("hourOfDay").sum("crowdSum").as("crowdSum").sum("count").as("count"));
+
+        Map<Integer, Double> trends = new TreeMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, BusyHourBucket.class, Document.class)) {
+            long count = ((Number) row.get("count")).longValue();
+            if (count == 0) continue;
+            trends.put(((Number) row.get("_id")).intValue(), ((Number) row.get("crowdSum")).doubleValue() / count);
+        }
+        return trends;
+    }
+
+    public static String crowdStatus(int crowdLevel) {
+        if (crowdLevel <= 30) return "quiet";
+        else if (crowdLevel <= 60) return "moderate";
+        else if (crowdLevel <= 85) return "busy";
+        else return "very_busy";
+    }
+}
@@ -0,0 +1,186 @@
+package com.cafefinder.app.service;
+
+import com.cafefinder.app.model.Cafe;
+import com.cafefinder.app.repo.CafeRepo;
+import com.cafefinder.app.util.TtlCache;
+import com.mongodb.CursorType;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Process-local read-through cache of Cafe documents for hot read paths (detail page, menu,
+// claim checks). Every write path calls invalidate(). With the invalidation channel enabled,
+// invalidations are also appended to a small capped collection that every instance tails, so
+// several app instances stay consistent without a shared cache server. The TTL bounds
+// staleness if a message is ever missed.
+//
+// Cached instances are shared: callers must not mutate them. Write paths load a fresh copy
+// from CafeRepo.
+@Service
+@Lazy(false) // invalidation listener must run even when nothing has read a cafe yet
+public class CafeCache {
+    private static final String CHANNEL = "cache_invalidations";
+    private static final String ALL = "*";
+
+    private final CafeRepo cafeRepo;
+    private final MongoTemplate mongoTemplate;
+    private final TtlCache<String, Cafe> cache;
+    private final boolean channelEnabled;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Counter hits;
+    private final Counter misses;
+    // Bumped on every invalidation so a load that raced with a write is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private volatile boolean running = true;
+    private Thread listener;
+
+    public CafeCache(CafeRepo cafeRepo, MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+                     @Value("${cafefinder.cache.cafe.maxSize:5000}") int maxSize,
+                     @Value("${cafefinder.cache.cafe.ttlMs:600000}") long ttlMs,
+                     @Value("${cafefinder.cache.cafe.invalidationChannel:false}") boolean channelEnabled) {
+        this.cafeRepo = cafeRepo;
+        this.mongoTemplate = mongoTemplate;
+        this.cache = new TtlCache<>(maxSize, ttlMs);
+        this.channelEnabled = channelEnabled;
+
+        Gauge.builder("cafefinder.cache.cafe.size", cache, TtlCache::size).register(meterRegistry);
+        this.hits = Counter.builder("cafefinder.cache.cafe.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cafefinder.cache.cafe.requests").tag("result", "miss").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startChannel() {
+        if (!channelEnabled) return;
+        if (!mongoTemplate.collectionExists(CHANNEL)) {
+            try {
+                mongoTemplate.createCollection(CHANNEL, CollectionOptions.empty().capped().size(1024 * 1024).maxDocuments(10000));
+            } catch (Exception e) {
+                // Another instance created it first
+            }
+        }
+        listener = new Thread(this::listen, "cafe-cache-invalidation");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stopChannel() {
+        running = false;
+        if (listener != null) listener.interrupt();
+    }
+
+    public Optional<Cafe> findById(String id) {
+        Cafe cached = cache.get(id);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+
+        misses.increment();
+        long before = generation.get();
+        Optional<Cafe> loaded = cafeRepo.findById(id);
+        if (loaded.isPresent() && generation.get() == before) {
+            cache.put(id, loaded.get());
+        }
+        return loaded;
+    }
+
+    public void invalidate(String id) {
+        evictLocal(id);
+        broadcast(id);
+    }
+
+    public void invalidate(Collection<String> ids) {
+        if (ids.isEmpty()) return;
+        for (String id : ids) evictLocal(id);
+        if (!channelEnabled) return;
+        try {
+            mongoTemplate.insert(ids.stream().map(this::message).toList(), CHANNEL);
+        } catch (Exception e) {
+            System.err.println("Failed to publish cafe cache invalidations: " + e.getMessage());
+        }
+    }
+
+    public void invalidateAll() {
+        evictLocal(ALL);
+        broadcast(ALL);
+    }
+
+    private void evictLocal(String id) {
+        generation.incrementAndGet();
+        if (ALL.equals(id)) cache.invalidateAll();
+        else cache.invalidate(id);
+    }
+
+    private void broadcast(String id) {
+        if (!channelEnabled) return;
+        try {
+            mongoTemplate.insert(message(id), CHANNEL);
+        } catch (Exception e) {
+            System.err.println("Failed to publish cafe cache invalidation: " + e.getMessage());
+        }
+    }
+
+    private Document message(String id) {
+        return new Document("cafeId", id).append("origin", instanceId).append("at", Instant.now());
+    }
+
+    // Tails the capped collection from its current end; reconnects after errors
+    private void listen() {
+        MongoCollection<Document> collection = mongoTemplate.getCollection(CHANNEL);
+        ObjectId lastSeen = null;
+        Document newest = collection.find().sort(Sorts.descending("$natural")).limit(1).first();
+        if (newest != null) lastSeen = newest.getObjectId("_id");
+
+        while (running) {
+            try (MongoCursor<Document> cursor = collection
+                    .find(lastSeen != null ? Filters.gt("_id", lastSeen) : new Document())
+                    .cursorType(CursorType.TailableAwait)
+                    .maxAwaitTime(1, TimeUnit.SECONDS)
+                    .iterator()) {
+                while (running) {
+                    Document message = cursor.tryNext();
+                    if (message == null) {
+                        if (cursor.getServerCursor() == null) break;
+                        continue;
+                    }
+                    lastSeen = message.getObjectId("_id");
+                    if (instanceId.equals(message.getString("origin"))) continue;
+
+                    evictLocal(message.getString("cafeId"));
+                }
+            } catch (Exception e) {
+                if (!running) return;
+                // Anything missed while disconnected may be stale; start clean
+                evictLocal(ALL);
+                System.err.println("Cafe cache invalidation listener error: " + e.getMessage());
+            }
+
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.cafefinder.app.service;
+
+import com.cafefinder.app.model.Cafe;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Bulk cafe import: unordered bulk upserts in batches, keyed on a natural key so re-running an
+// import updates cafes instead of duplicating them. The key is the Google place id when the cafe
+// has one, otherwise name + address. Cafes repeating a key within a batch are merged (the last
+// one wins) so they don't race each other's upserts, and a partially failed batch still reports
+// what it wrote.
+@Service
+public class CafeImportService {
+    // Place facts refreshed on every import; everything else is only written on insert so
+    // owner edits and locally computed ratings survive re-imports
+    private static final Set<String> REFRESHED_FIELDS = Set.of(
+            "name", "address", "city", "latitude", "longitude", "location", "phone", "website");
+
+    private final MongoTemplate mongoTemplate;
+    private final CafeCache cafeCache;
+    private final PopularLeaderboard popularLeaderboard;
+    private final int batchSize;
+    private volatile boolean indexesEnsured;
+
+    // updated counts existing cafes the import matched, whether or not any field changed
+    public record Result(int inserted, int updated, int failed) {
+        public Result(int inserted, int updated) {
+            this(inserted, updated, 0);
+        }
+
+        Result plus(Result other) {
+            return new Result(inserted + other.inserted, updated + other.updated, failed + other.failed);
+        }
+    }
+
+    public CafeImportService(MongoTemplate mongoTemplate, CafeCache cafeCache, PopularLeaderboard popularLeaderboard,
+                             @Value("${cafefinder.import.batchSize:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.cafeCache = cafeCache;
+        this.popularLeaderboard = popularLeaderboard;
+        this.batchSize = batchSize;
+    }
+
+    // Imports in batches, then drops stale cache entries and re-ranks popular cafes once
+    public Result importCafes(List<Cafe> cafes) {
+        Result total = new Result(0, 0);
+        for (int from = 0; from < cafes.size(); from += batchSize) {
+            total = total.plus(upsertBatch(cafes.subList(from, Math.min(cafes.size(), from + batchSize))));
+        }
+        if (total.updated() > 0) cafeCache.invalidateAll();
+        if (total.inserted() > 0 || total.updated() > 0) popularLeaderboard.rebuild();
+        return total;
+    }
+
+    // One unordered bulk write; callers importing in several steps handle cache invalidation
+    public Result upsertBatch(List<Cafe> cafes) {
+        if (cafes.isEmpty()) return new Result(0, 0);
+        ensureIndexes();
+
+        Map<List<String>, Cafe> unique = new LinkedHashMap<>();
+        for (Cafe cafe : cafes) {
+            unique.put(naturalKey(cafe), cafe);
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Cafe.class);
+        for (Cafe cafe : unique.values()) {
+            CafeService.applyClaimDefaults(cafe); // insert-only, so existing claims are kept
+            Document doc = new Document();
+            mongoTemplate.getConverter().write(cafe, doc);
+            doc.remove("_id");
+            doc.remove("_class");
+
+            Query key;
+            if (cafe.getPlaceId() != null) {
+                key = Query.query(Criteria.where("placeId").is(cafe.getPlaceId()));
+                doc.remove("placeId");
+            } else {
+                key = Query.query(Criteria.where("name").is(cafe.getName()).and("address").is(cafe.getAddress()));
+            }
+
+            Update update = new Update();
+            doc.forEach((field, value) -> {
+                if (REFRESHED_FIELDS.contains(field)) update.set(field, value);
+                else update.setOnInsert(field, value);
+            });
+            bulk.upsert(key, update);
+        }
+        BulkWriteResult result;
+        int failed = 0;
+        try {
+            result = bulk.execute();
+        } catch (BulkOperationException e) {
+            // Unordered, so the other writes went through; report them along with the failures
+            failed = e.getErrors().size();
+            e.getErrors().stream().limit(5).forEach(error -> System.err.println(
+                    "Cafe import write " + error.getIndex() + " failed: " + error.getMessage()));
+            result = e.getResult();
+        }
+        // Upserted documents are not part of the matched count, so matched is the cafes that
+        // already existed; modified would leave out re-imports that changed nothing
+        int inserted = result != null ? result.getUpserts().size() : 0;
+        int updated = result != null ? result.getMatchedCount() : 0;
+        return new Result(inserted, updated, failed);
+    }
+
+    private static List<String> naturalKey(Cafe cafe) {
+        return cafe.getPlaceId() != null
+                ? List.of("placeId", cafe.getPlaceId())
+                : Arrays.asList("nameAddress", cafe.getName(), cafe.getAddress());
+    }
+
+    private void ensureIndexes() {
+        if (indexesEnsured) return;
+        mongoTemplate.indexOps(Cafe.class).ensureIndex(new Index().on("placeId", Sort.Direction.ASC).unique().sparse());
+        mongoTemplate.indexOps(Cafe.class).ensureIndex(new Index()
+                .on("name", Sort.Direction.ASC).on("address", Sort.Direction.ASC).named("name_address"));
+        indexesEnsured = true;
+    }
+}
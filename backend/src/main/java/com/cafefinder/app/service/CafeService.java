@@ -1,66 +1,147 @@
 package com.cafefinder.app.service;
 
+import com.cafefinder.app.config.QueryMetrics;
+import com.cafefinder.app.dto.CafeSummary;
+import com.cafefinder.app.dto.CursorPage;
 import com.cafefinder.app.model.Cafe;
 import com.cafefinder.app.repo.CafeRepo;
 import com.cafefinder.app.repo.ReviewRepo;
+import com.cafefinder.app.model.RatingTotals;
 import com.cafefinder.app.model.Review;
+import com.cafefinder.app.util.CursorCodec;
+import com.cafefinder.app.util.GeoUtils;
+import org.bson.Document;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Circle;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.NearQuery;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Service
 public class CafeService {
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final String MODE_TEXT = "text";
+    public static final String MODE_CONTAINS = "contains";
+
     private final CafeRepo cafeRepo;
     private final ReviewRepo reviewRepo;
     private final MongoTemplate mongoTemplate;
     private final GooglePlacesService googlePlacesService;
+    private final CafeCache cafeCache;
+    private final PopularLeaderboard popularLeaderboard;
+    private final QueryMetrics queryMetrics;
 
-    public CafeService(CafeRepo cafeRepo, ReviewRepo reviewRepo, MongoTemplate mongoTemplate, GooglePlacesService googlePlacesService){
+    public CafeService(CafeRepo cafeRepo, ReviewRepo reviewRepo, MongoTemplate mongoTemplate, GooglePlacesService googlePlacesService,
+                       CafeCache cafeCache, PopularLeaderboard popularLeaderboard, QueryMetrics queryMetrics){
         this.cafeRepo = cafeRepo;
+        this.queryMetrics = queryMetrics;
+        this.cafeCache = cafeCache;
+        this.popularLeaderboard = popularLeaderboard;
         this.reviewRepo = reviewRepo;
         this.mongoTemplate = mongoTemplate;
         this.googlePlacesService = googlePlacesService;
     }
 
-    public List<Cafe> search(String q){
-        if(q == null || q.isBlank()) return cafeRepo.findAll();
-        return cafeRepo.findByNameContainingIgnoreCase(q);
+    public CursorPage<CafeSummary> searchWithFilters(String q, String city, Double lat, Double lng, Double radius,
+                                              Boolean wifi, Boolean seating, Boolean workFriendly,
+                                              String priceRange, Double minRating, String mode, int size, String cursor) {
+
+        // Always use database as primary source - no Google Places API calls during search
+        boolean textSearch = isTextSearch(q, mode);
+        boolean radiusSearch = lat != null && lng != null && radius != null;
+        Query query = buildSearchQuery(q, textSearch, city, wifi, seating, workFriendly, priceRange, minRating);
+        int pageSize = clampPageSize(size);
+
+        if (textSearch) {
+            // $text cannot be combined with $geoNear, the radius becomes a $geoWithin filter
+            if (radiusSearch) addWithinRadius(query, lat, lng, radius);
+            return relevancePage(query, pageSize, cursor, radiusSearch ? lat : null, radiusSearch ? lng : null);
+        }
+
+        // Radius searches run as $geoNear so Mongo filters, sorts and attaches the distance
+        if (radiusSearch) {
+            return geoNearPage(query, lat, lng, radius, pageSize, cursor);
+        }
+
+        return ratingPage(query, pageSize, cursor);
     }
 
-    public List<Cafe> searchWithFilters(String q, String city, Double lat, Double lng, Double radius,
-                                       Boolean wifi, Boolean seating, Boolean workFriendly,
-                                       String priceRange, Double minRating) {
+    // Unpaged search backed by a server cursor, the caller must close the stream
+    public Stream<CafeSummary> streamWithFilters(String q, String city, Double lat, Double lng, Double radius,
+                                          Boolean wifi, Boolean seating, Boolean workFriendly,
+                                          String priceRange, Double minRating, String mode) {
+        boolean textSearch = isTextSearch(q, mode);
+        Query query = summaryFields(buildSearchQuery(q, textSearch, city, wifi, seating, workFriendly, priceRange, minRating));
+        query.with(textSearch ? Sort.by(Sort.Order.asc("id"))
+                : Sort.by(Sort.Order.desc("avgRating"), Sort.Order.asc("id")));
 
-        // Always use database as primary source - no Google Places API calls during search
-        List<Cafe> results = performDatabaseSearch(q, city, lat, lng, radius, wifi, seating, workFriendly, priceRange, minRating);
+        if (lat == null || lng == null || radius == null) {
+            return mongoTemplate.stream(query, Cafe.class).map(CafeSummary::from);
+        }
+
+        addWithinRadius(query, lat, lng, radius);
+        return mongoTemplate.stream(query, Cafe.class)
+                .peek(cafe -> cafe.setDistanceKm(GeoUtils.distanceKm(lat, lng, cafe.getLatitude(), cafe.getLongitude())))
+                .map(CafeSummary::from);
+    }
+
+    // List endpoints only read the fields a cafe card shows
+    private static Query summaryFields(Query query) {
+        query.fields().include(CafeSummary.FIELDS);
+        return query;
+    }
 
-        // Return database results only - Google Places API is only used during initial seeding
-        return results != null ? results : new ArrayList<>();
+    // Substring matching stays the default: $text only matches whole stemmed words, so a partial
+    // name like "Star" finds nothing in text mode
+    private boolean isTextSearch(String q, String mode) {
+        return q != null && !q.isBlank() && MODE_TEXT.equalsIgnoreCase(mode);
     }
 
-    private List<Cafe> performDatabaseSearch(String q, String city, Double lat, Double lng, Double radius,
-                                            Boolean wifi, Boolean seating, Boolean workFriendly,
-                                            String priceRange, Double minRating) {
-        Query query = new Query();
+    private Query buildSearchQuery(String q, boolean textSearch, String city, Boolean wifi, Boolean seating,
+                                   Boolean workFriendly, String priceRange, Double minRating) {
+        Query query;
         List<Criteria> criteria = new ArrayList<>();
 
-        // Text search
-        if (q != null && !q.isBlank()) {
-            criteria.add(new Criteria().orOperator(
-                Criteria.where("name").regex(q, "i"),
-                Criteria.where("description").regex(q, "i"),
-                Criteria.where("tags").regex(q, "i")
-            ));
+        // Text search - relevance ranked against the weighted text index, or a literal substring match
+        if (textSearch) {
+            // Quotes and leading dashes are $text phrase/negation operators, treat input as plain words
+            String words = q.replaceAll("[\"\\-]", " ").trim();
+            query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(words)).sortByScore();
+        } else {
+            query = new Query();
+            if (q != null && !q.isBlank()) {
+                String literal = Pattern.quote(q.trim());
+                criteria.add(new Criteria().orOperator(
+                    Criteria.where("name").regex(literal, "i"),
+                    Criteria.where("description").regex(literal, "i"),
+                    Criteria.where("tags").regex(literal, "i")
+                ));
+            }
         }
 
         // Location filters
         if (city != null && !city.isBlank()) {
-            criteria.add(Criteria.where("city").regex(city, "i"));
+            criteria.add(Criteria.where("city").regex(Pattern.quote(city.trim()), "i"));
         }
 
         // Amenity filters
@@ -87,47 +168,124 @@ public class CafeService {
         if (!criteria.isEmpty()) {
             query.addCriteria(new Criteria().andOperator(criteria.toArray(new Criteria[0])));
         }
+        return query;
+    }
+
+    public CursorPage<CafeSummary> findNearby(double lat, double lng, double radiusKm, int size, String cursor) {
+        return geoNearPage(new Query(), lat, lng, radiusKm, clampPageSize(size), cursor);
+    }
+
+    private void addWithinRadius(Query query, double lat, double lng, double radiusKm) {
+        query.addCriteria(Criteria.where("location").withinSphere(
+                new Circle(new GeoJsonPoint(lng, lat), new Distance(radiusKm, Metrics.KILOMETERS))));
+    }
+
+    // Text score has no stable keyset, so relevance pages use an offset cursor = [offset]
+    private CursorPage<CafeSummary> relevancePage(Query query, int pageSize, String cursor, Double lat, Double lng) {
+        int offset = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            offset = Integer.parseInt(CursorCodec.decode(cursor, 1).get(0));
+            if (offset < 0) throw new IllegalArgumentException("Invalid cursor");
+        }
 
-        List<Cafe> results = mongoTemplate.find(query, Cafe.class);
+        query.with(Sort.by(Sort.Order.asc("id"))); // tie-break after the text score
+        query.skip(offset).limit(pageSize + 1);
+        List<Cafe> results = queryMetrics.time("CafeService.relevancePage", Cafe.class, query,
+                () -> mongoTemplate.find(summaryFields(query), Cafe.class));
+        if (lat != null && lng != null) {
+            results.forEach(cafe -> cafe.setDistanceKm(GeoUtils.distanceKm(lat, lng, cafe.getLatitude(), cafe.getLongitude())));
+        }
+
+        if (results.size() <= pageSize) return new CursorPage<>(toSummaries(results), null);
+        return new CursorPage<>(toSummaries(results.subList(0, pageSize)),
+                CursorCodec.encode(List.of(String.valueOf(offset + pageSize))));
+    }
 
-        // Apply radius filter if coordinates provided
-        if (lat != null && lng != null && radius != null) {
-            results = filterByDistance(results, lat, lng, radius);
+    // Keyset page ordered by (avgRating desc, _id asc); cursor = [avgRating, id]
+    private CursorPage<CafeSummary> ratingPage(Query query, int pageSize, String cursor) {
+        if (cursor != null && !cursor.isBlank()) {
+            List<String> keys = CursorCodec.decode(cursor, 2);
+            double rating = Double.parseDouble(keys.get(0));
+            query.addCriteria(new Criteria().orOperator(
+                Criteria.where("avgRating").lt(rating),
+                new Criteria().andOperator(Criteria.where("avgRating").is(rating), Criteria.where("id").gt(keys.get(1)))
+            ));
         }
 
-        return results;
+        query.with(Sort.by(Sort.Order.desc("avgRating"), Sort.Order.asc("id")));
+        query.limit(pageSize + 1);
+        List<Cafe> results = queryMetrics.time("CafeService.ratingPage", Cafe.class, query,
+                () -> mongoTemplate.find(summaryFields(query), Cafe.class));
+
+        if (results.size() <= pageSize) return new CursorPage<>(toSummaries(results), null);
+        Cafe last = results.get(pageSize - 1);
+        return new CursorPage<>(toSummaries(results.subList(0, pageSize)),
+                CursorCodec.encode(List.of(String.valueOf(last.getAvgRating()), last.getId())));
+    }
+
+    // Cafes inside the radius matching the query, closest first with distanceKm set.
+    // Cursor = [last distance, ids already returned at that distance] so ties are not repeated.
+    private CursorPage<CafeSummary> geoNearPage(Query query, double lat, double lng, double radiusKm, int pageSize, String cursor) {
+        NearQuery nearQuery = NearQuery.near(new GeoJsonPoint(lng, lat), Metrics.KILOMETERS)
+                .maxDistance(radiusKm)
+                .spherical(true);
+
+        double fromDistance = 0.0;
+        List<String> seenIds = List.of();
+        if (cursor != null && !cursor.isBlank()) {
+            List<String> keys = CursorCodec.decode(cursor, 2);
+            fromDistance = Double.parseDouble(keys.get(0));
+            seenIds = keys.subList(1, keys.size());
+            query.addCriteria(Criteria.where("id").nin(seenIds));
+            nearQuery.minDistance(tieLowerBound(fromDistance));
+        }
+
+        nearQuery.query(query).limit(pageSize + 1);
+
+        // $geoNear writes the distance straight into distanceKm, then only card fields are projected
+        Document projection = new Document("distanceKm", 1);
+        for (String field : CafeSummary.FIELDS) projection.append(field, 1);
+        AggregationOperation project = context -> new Document("$project", projection);
+        // $geoNear always runs on the 2dsphere index, so there is nothing to explain
+        List<CafeSummary> results = queryMetrics.time("CafeService.geoNearPage", Cafe.class, null, () -> mongoTemplate.aggregate(
+                Aggregation.newAggregation(Cafe.class, Aggregation.geoNear(nearQuery, "distanceKm"), project),
+                CafeSummary.class).getMappedResults());
+
+        if (results.size() <= pageSize) return new CursorPage<>(results, null);
+
+        List<CafeSummary> items = results.subList(0, pageSize);
+        double lastDistance = items.get(pageSize - 1).getDistanceKm();
+        double lowerBound = tieLowerBound(lastDistance);
+
+        List<String> keys = new ArrayList<>();
+        keys.add(String.valueOf(lastDistance));
+        if (fromDistance >= lowerBound) {
+            keys.addAll(seenIds); // tie group spans more than one page
+        }
+        for (CafeSummary cafe : items) {
+            if (cafe.getDistanceKm() >= lowerBound) keys.add(cafe.getId());
+        }
+        return new CursorPage<>(new ArrayList<>(items), CursorCodec.encode(keys));
     }
 
-    public List<Cafe> findNearby(double lat, double lng, double radiusKm) {
-        List<Cafe> allCafes = cafeRepo.findAll();
-        return filterByDistance(allCafes, lat, lng, radiusKm);
+    // Distances round-trip through meters on the server, allow for rounding on ties
+    private double tieLowerBound(double distanceKm) {
+        return distanceKm * (1 - 1e-9);
     }
 
-    private List<Cafe> filterByDistance(List<Cafe> cafes, double lat, double lng, double radiusKm) {
-        return cafes.stream()
-                .filter(cafe -> {
-                    double distance = calculateDistance(lat, lng, cafe.getLatitude(), cafe.getLongitude());
-                    return distance <= radiusKm;
-                })
-                .toList();
+    private static List<CafeSummary> toSummaries(List<Cafe> cafes) {
+        List<CafeSummary> summaries = new ArrayList<>(cafes.size());
+        for (Cafe cafe : cafes) summaries.add(CafeSummary.from(cafe));
+        return summaries;
     }
 
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371; // Radius of the earth in km
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
     }
 
-    public List<Cafe> getPopularCafes(int limit) {
-        Query query = new Query();
-        query.with(Sort.by(Sort.Direction.DESC, "avgRating", "reviewsCount"));
-        query.limit(limit);
-        return mongoTemplate.find(query, Cafe.class);
+    // Served from the in-memory leaderboard; city == null means the global board
+    public CursorPage<CafeSummary> getPopularCafes(int limit, String cursor, String city) {
+        return popularLeaderboard.page(city, clampPageSize(limit), cursor);
     }
 
     public Cafe createCafe(Cafe cafe) {
@@ -135,13 +293,36 @@ public class CafeService {
         cafe.setAvgRating(0.0);
         cafe.setAvgCoffeeRating(0.0);
         cafe.setAvgTasteRating(0.0);
+        cafe.setAvgAmbianceRating(0.0);
+        cafe.setAvgServiceRating(0.0);
+        cafe.setAvgValueRating(0.0);
+        cafe.setRatingTotals(new RatingTotals());
         cafe.setReviewsCount(0);
         cafe.setCurrentStatus("unknown");
+        applyClaimDefaults(cafe);
         return cafeRepo.save(cafe);
     }
 
+    // New cafes start unclaimed. DatabaseMigration (v1) only backfilled the cafes that existed
+    // when it ran, so every path that creates cafes sets this itself.
+    static void applyClaimDefaults(Cafe cafe) {
+        if (cafe.getClaimStatus() != null) return;
+        cafe.setClaimStatus("UNCLAIMED");
+        cafe.setClaimed(false);
+        cafe.setVerified(false);
+    }
+
     public Cafe updateCafe(Cafe cafe) {
-        return cafeRepo.save(cafe);
+        Cafe saved = cafeRepo.save(cafe);
+        cafeCache.invalidate(saved.getId());
+        popularLeaderboard.markDirty(saved.getId());
+        return saved;
+    }
+
+    public void deleteCafe(Cafe cafe) {
+        cafeRepo.delete(cafe);
+        cafeCache.invalidate(cafe.getId());
+        popularLeaderboard.markDirty(cafe.getId());
     }
 
     public double computeAvgRating(String cafeId){
@@ -150,30 +331,180 @@ public class CafeService {
         return reviews.stream().mapToInt(Review::getOverallRating).average().orElse(0.0);
     }
 
-    public void updateCafeRatings(String cafeId) {
-        List<Review> reviews = reviewRepo.findByCafeIdOrderByCreatedAtDesc(cafeId);
-        if (reviews.isEmpty()) return;
-
-        double avgOverall = reviews.stream()
-                .mapToInt(Review::getOverallRating)
-                .average().orElse(0.0);
-
-        double avgCoffee = reviews.stream()
-                .filter(r -> r.getCoffeeRating() != null)
-                .mapToInt(Review::getCoffeeRating)
-                .average().orElse(0.0);
-
-        double avgTaste = reviews.stream()
-                .filter(r -> r.getTasteRating() != null)
-                .mapToInt(Review::getTasteRating)
-                .average().orElse(0.0);
-
-        cafeRepo.findById(cafeId).ifPresent(cafe -> {
-            cafe.setAvgRating(avgOverall);
-            cafe.setAvgCoffeeRating(avgCoffee);
-            cafe.setAvgTasteRating(avgTaste);
-            cafe.setReviewsCount(reviews.size());
-            cafeRepo.save(cafe);
+    // Rating dimensions tracked on the cafe: totals key, review field, cafe average field
+    private record RatingDimension(String key, String reviewField, String avgField, Function<Review, Integer> value) {}
+
+    private static final List<RatingDimension> RATING_DIMENSIONS = List.of(
+            new RatingDimension("overall", "overallRating", "avgRating", Review::getOverallRating),
+            new RatingDimension("coffee", "coffeeRating", "avgCoffeeRating", Review::getCoffeeRating),
+            new RatingDimension("taste", "tasteRating", "avgTasteRating", Review::getTasteRating),
+            new RatingDimension("ambiance", "ambianceRating", "avgAmbianceRating", Review::getAmbianceRating),
+            new RatingDimension("service", "serviceRating", "avgServiceRating", Review::getServiceRating),
+            new RatingDimension("value", "valueRating", "avgValueRating", Review::getValueRating)
+    );
+
+    public static final String APPROVED = "APPROVED";
+
+    // Only approved reviews are public, so only they count toward a cafe's ratings
+    private boolean countsTowardRatings(Review review) {
+        return review != null && review.getCafeId() != null && APPROVED.equals(review.getStatus());
+    }
+
+    // Moderation changed the status of `review` in place; adds or removes its contribution
+    public void applyStatusChange(Review review, String previousStatus) {
+        boolean counted = review.getCafeId() != null && APPROVED.equals(previousStatus);
+        boolean counts = countsTowardRatings(review);
+        if (counted == counts) return;
+
+        incrementTotals(review.getCafeId(), counts ? ratingDeltas(null, review) : ratingDeltas(review, null));
+    }
+
+    // Batch form of applyStatusChange for bulk moderation: deltas are merged per cafe and written
+    // in one unordered bulk write, one update per cafe however many of its reviews changed.
+    // Returns the number of cafes updated.
+    public int applyStatusChanges(List<Review> reviews, Map<String, String> previousStatusById) {
+        Map<String, Map<RatingDimension, long[]>> byCafe = new LinkedHashMap<>();
+        for (Review review : reviews) {
+            boolean counted = review.getCafeId() != null && APPROVED.equals(previousStatusById.get(review.getId()));
+            boolean counts = countsTowardRatings(review);
+            if (counted == counts) continue;
+
+            Map<RatingDimension, long[]> merged = byCafe.computeIfAbsent(review.getCafeId(), k -> new LinkedHashMap<>());
+            ratingDeltas(counts ? null : review, counts ? review : null).forEach((dim, delta) ->
+                    merged.merge(dim, delta, (a, b) -> new long[]{a[0] + b[0], a[1] + b[1]}));
+        }
+        byCafe.values().removeIf(deltas -> deltas.values().stream().allMatch(d -> d[0] == 0 && d[1] == 0));
+        if (byCafe.isEmpty()) return 0;
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Cafe.class);
+        byCafe.forEach((cafeId, deltas) -> bulk.updateOne(Query.query(Criteria.where("id").is(cafeId)), totalsPipeline(deltas)));
+        queryMetrics.time("CafeService.applyStatusChanges", Cafe.class, null, bulk::execute);
+        cafeCache.invalidate(byCafe.keySet());
+        byCafe.keySet().forEach(popularLeaderboard::markDirty);
+        return byCafe.size();
+    }
+
+    // Applies the change from `before` to `after` to the running totals; null means the review
+    // did not exist on that side (create/delete). Costs one update per affected cafe.
+    public void applyReviewDelta(Review before, Review after) {
+        Review removed = countsTowardRatings(before) ? before : null;
+        Review added = countsTowardRatings(after) ? after : null;
+        if (removed == null && added == null) return;
+
+        if (removed != null && added != null && removed.getCafeId().equals(added.getCafeId())) {
+            incrementTotals(added.getCafeId(), ratingDeltas(removed, added));
+            return;
+        }
+        if (removed != null) incrementTotals(removed.getCafeId(), ratingDeltas(removed, null));
+        if (added != null) incrementTotals(added.getCafeId(), ratingDeltas(null, added));
+    }
+
+    // Per dimension: {sum delta, count delta}
+    private Map<RatingDimension, long[]> ratingDeltas(Review before, Review after) {
+        Map<RatingDimension, long[]> deltas = new LinkedHashMap<>();
+        for (RatingDimension dim : RATING_DIMENSIONS) {
+            Integer old = before != null ? dim.value().apply(before) : null;
+            Integer now = after != null ? dim.value().apply(after) : null;
+            long sumDelta = (now != null ? now : 0) - (old != null ? old : 0);
+            long countDelta = (now != null ? 1 : 0) - (old != null ? 1 : 0);
+            if (sumDelta != 0 || countDelta != 0) {
+                deltas.put(dim, new long[]{sumDelta, countDelta});
+            }
+        }
+        return deltas;
+    }
+
+    // Single pipeline update: bump the totals, then derive the averages from the new totals,
+    // so concurrent reviews never overwrite each other
+    private void incrementTotals(String cafeId, Map<RatingDimension, long[]> deltas) {
+        if (deltas.isEmpty()) return;
+
+        queryMetrics.time("CafeService.incrementTotals", Cafe.class, null, () ->
+                mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(cafeId)), totalsPipeline(deltas), Cafe.class));
+        cafeCache.invalidate(cafeId);
+        popularLeaderboard.markDirty(cafeId);
+    }
+
+    private static AggregationUpdate totalsPipeline(Map<RatingDimension, long[]> deltas) {
+        Document totals = new Document();
+        deltas.forEach((dim, delta) -> {
+            totals.append(totalsField(dim, "Sum"), addTo(totalsField(dim, "Sum"), delta[0]));
+            totals.append(totalsField(dim, "Count"), addTo(totalsField(dim, "Count"), delta[1]));
         });
+
+        Document averages = new Document();
+        for (RatingDimension dim : RATING_DIMENSIONS) {
+            String sum = "$" + totalsField(dim, "Sum");
+            String count = "$" + totalsField(dim, "Count");
+            averages.append(dim.avgField(), new Document("$cond", List.of(
+                    new Document("$gt", List.of(new Document("$ifNull", List.of(count, 0)), 0)),
+                    new Document("$divide", List.of(sum, count)),
+                    0.0)));
+        }
+        averages.append("reviewsCount", new Document("$ifNull", List.of("$" + totalsField(RATING_DIMENSIONS.get(0), "Count"), 0)));
+
+        AggregationOperation bumpTotals = context -> new Document("$set", totals);
+        AggregationOperation deriveAverages = context -> new Document("$set", averages);
+        return AggregationUpdate.from(List.of(bumpTotals, deriveAverages));
+    }
+
+    private static String totalsField(RatingDimension dim, String suffix) {
+        return "ratingTotals." + dim.key() + suffix;
+    }
+
+    private static Document addTo(String field, long delta) {
+        return new Document("$add", List.of(new Document("$ifNull", List.of("$" + field, 0L)), delta));
+    }
+
+    // $group accumulators producing <key>Sum / <key>Count for every dimension
+    static Document ratingAccumulators() {
+        Document group = new Document();
+        for (RatingDimension dim : RATING_DIMENSIONS) {
+            String field = "$" + dim.reviewField();
+            group.append(dim.key() + "Sum", new Document("$sum", field));
+            group.append(dim.key() + "Count", new Document("$sum",
+                    new Document("$cond", List.of(new Document("$isNumber", field), 1, 0))));
+        }
+        return group;
+    }
+
+    // Absolute $set of totals and averages from a ratingAccumulators() result; null resets to zero
+    static Update totalsUpdate(Document groupResult) {
+        Update update = new Update();
+        long overallCount = 0;
+        for (RatingDimension dim : RATING_DIMENSIONS) {
+            long sum = groupResult != null ? ((Number) groupResult.get(dim.key() + "Sum")).longValue() : 0;
+            long count = groupResult != null ? ((Number) groupResult.get(dim.key() + "Count")).longValue() : 0;
+            update.set(totalsField(dim, "Sum"), sum);
+            update.set(totalsField(dim, "Count"), count);
+            update.set(dim.avgField(), count > 0 ? (double) sum / count : 0.0);
+            if (dim == RATING_DIMENSIONS.get(0)) overallCount = count;
+        }
+        update.set("reviewsCount", overallCount);
+        return update;
+    }
+
+    // Cafes whose totals came from reviews that no longer count; seeded-only cafes have no totals
+    static Criteria hasReviewTotals() {
+        return Criteria.where(totalsField(RATING_DIMENSIONS.get(0), "Count")).gt(0);
+    }
+
+    // Full recompute of one cafe's totals from its approved reviews, aggregated server-side
+    public void updateCafeRatings(String cafeId) {
+        Document group = ratingAccumulators().append("_id", null);
+        Criteria approved = Criteria.where("cafeId").is(cafeId).and("status").is(APPROVED);
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(approved),
+                context -> new Document("$group", group));
+
+        Document result = queryMetrics.time("CafeService.updateCafeRatings", Review.class, Query.query(approved),
+                () -> mongoTemplate.aggregate(aggregation, Review.class, Document.class).getUniqueMappedResult());
+        // Cafes without local reviews keep their seeded ratings
+        Query target = result != null ? Query.query(Criteria.where("id").is(cafeId))
+                : Query.query(new Criteria().andOperator(Criteria.where("id").is(cafeId), hasReviewTotals()));
+        queryMetrics.time("CafeService.writeCafeRatings", Cafe.class, null,
+                () -> mongoTemplate.updateFirst(target, totalsUpdate(result), Cafe.class));
+        cafeCache.invalidate(cafeId);
+        popularLeaderboard.markDirty(cafeId);
     }
 }
@@ -0,0 +1,370 @@
+package com.cafefinder.app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pushes crowd-level changes to SSE subscribers watching a set of cafes or a map viewport.
+// Each subscriber keeps at most one pending update per cafe (newer reports replace older
+// ones) and is drained by at most one thread at a time, so a slow client only ever sees the
+// latest state instead of a growing backlog.
+//
+// Streams use servlet non-blocking output: a drain writes only while the connection can take
+// more and otherwise returns, and the container resumes it once the client reads again. No
+// thread ever waits on a client, so a small fixed pool with a bounded queue does all the
+// sending. A subscriber is dropped when its connection stays unwritable for sendTimeoutMs,
+// when more than maxPendingPerClient cafes are waiting for it, or when the sender pool is
+// saturated; it can reconnect and get a fresh snapshot.
+@Service
+public class CrowdBroadcaster {
+    public static final int MAX_CAFE_IDS = 100;
+
+    private static final byte[] CONNECTED = ": connected\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PING = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor sender;
+    private final long streamTimeoutMs;
+    private final long sendTimeoutMs;
+    private final int maxPending;
+
+    public CrowdBroadcaster(ObjectMapper objectMapper,
+                            @Value("${cafefinder.busy.stream.senderThreads:4}") int senderThreads,
+                            @Value("${cafefinder.busy.stream.senderQueue:1000}") int senderQueue,
+                            @Value("${cafefinder.busy.stream.timeoutMs:1800000}") long streamTimeoutMs,
+                            @Value("${cafefinder.busy.stream.sendTimeoutMs:10000}") long sendTimeoutMs,
+                            @Value("${cafefinder.busy.stream.maxPendingPerClient:500}") int maxPending) {
+        this.objectMapper = objectMapper;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(senderQueue), r -> {
+            Thread t = new Thread(r, "crowd-sse-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+        // A cafe subscription's snapshot is queued in one go and must fit
+        this.maxPending = Math.max(maxPending, MAX_CAFE_IDS);
+    }
+
+    // The snapshot (current status per cafe) is queued first so clients can stop polling right away
+    public void subscribeToCafes(HttpServletRequest request, HttpServletResponse response, Set<String> cafeIds,
+                                 Map<String, Map<String, Object>> snapshot) throws IOException {
+        Subscriber subscriber = new Subscriber(cafeIds, null);
+        snapshot.forEach((cafeId, status) -> subscriber.offer(cafeId, toUpdate(cafeId, status)));
+        start(subscriber, request, response);
+    }
+
+    // Viewport is {minLat, minLng, maxLat, maxLng}; minLng > maxLng means it crosses the antimeridian
+    public void subscribeToViewport(HttpServletRequest request, HttpServletResponse response,
+                                    double minLat, double minLng, double maxLat, double maxLng) throws IOException {
+        double[] viewport = {minLat, minLng, maxLat, maxLng};
+        start(new Subscriber(null, viewport), request, response);
+    }
+
+    // Queues an update for every subscriber interested in the cafe
+    public void publish(String cafeId, Double latitude, Double longitude, Map<String, Object> status) {
+        if (subscribers.isEmpty()) return;
+
+        Map<String, Object> update = toUpdate(cafeId, status);
+
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.matches(cafeId, latitude, longitude)) {
+                subscriber.offer(cafeId, update);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // Comment frames keep proxies from idling out the connection and surface dead clients
+    @Scheduled(fixedRateString = "${cafefinder.busy.stream.heartbeatMs:20000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.ping();
+        }
+    }
+
+    // A connection that can't take more output for longer than the send timeout belongs to a
+    // client that stopped reading
+    @Scheduled(fixedRateString = "${cafefinder.busy.stream.stallCheckMs:5000}")
+    public void evictStalled() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.stalledFor(now) > sendTimeoutMs) {
+                subscriber.close();
+            }
+        }
+    }
+
+    private static Map<String, Object> toUpdate(String cafeId, Map<String, Object> status) {
+        Map<String, Object> update = new LinkedHashMap<>();
+        update.put("cafeId", cafeId);
+        update.putAll(status);
+        return update;
+    }
+
+    private void start(Subscriber subscriber, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("X-Accel-Buffering", "no");
+
+        AsyncContext async = request.startAsync(request, response);
+        async.setTimeout(streamTimeoutMs);
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                subscriber.markClosed();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                subscriber.close();
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                subscriber.close();
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        subscriber.async = async;
+        ServletOutputStream out = response.getOutputStream();
+        out.setWriteListener(subscriber);
+        subscriber.out = out;
+        subscribers.add(subscriber);
+        // Sends the connected comment (committing the headers) and the snapshot; the container
+        // also calls onWritePossible once the stream is ready
+        subscriber.schedule();
+    }
+
+    private final class Subscriber implements WriteListener {
+        private final Set<String> cafeIds;
+        private final double[] viewport;
+        private final LinkedHashMap<String, Map<String, Object>> pending = new LinkedHashMap<>();
+        private volatile AsyncContext async;
+        private volatile ServletOutputStream out;
+        private boolean connected;
+        private boolean pingDue;
+        private boolean flushDue;
+        // Set while a drain is queued or running, so each subscriber takes at most one queue slot;
+        // `again` makes that drain go round once more instead of starting a second one
+        private boolean draining;
+        private boolean again;
+        private boolean closed;
+        private boolean completed;
+        private volatile long stalledSince;
+
+        Subscriber(Set<String> cafeIds, double[] viewport) {
+            this.cafeIds = cafeIds;
+            this.viewport = viewport;
+        }
+
+        boolean matches(String cafeId, Double latitude, Double longitude) {
+            if (cafeIds != null) return cafeIds.contains(cafeId);
+            if (latitude == null || longitude == null) return false;
+            if (latitude < viewport[0] || latitude > viewport[2]) return false;
+            return viewport[1] <= viewport[3]
+                    ? longitude >= viewport[1] && longitude <= viewport[3]
+                    : longitude >= viewport[1] || longitude <= viewport[3];
+        }
+
+        void offer(String cafeId, Map<String, Object> update) {
+            boolean evict;
+            synchronized (pending) {
+                if (closed) return;
+                // Re-inserting moves the cafe to the back so cafes are sent in update order
+                pending.remove(cafeId);
+                pending.put(cafeId, update);
+                // Client is too far behind even after coalescing; let it reconnect and resync
+                evict = pending.size() > maxPending;
+            }
+            if (evict) {
+                close();
+            } else {
+                schedule();
+            }
+        }
+
+        void ping() {
+            synchronized (pending) {
+                if (closed || !pending.isEmpty()) return;
+                pingDue = true;
+            }
+            schedule();
+        }
+
+        long stalledFor(long now) {
+            long since = stalledSince;
+            return since == 0 ? 0 : now - since;
+        }
+
+        // Container thread, once the stream is ready and again whenever it becomes writable after
+        // isReady() returned false
+        @Override
+        public void onWritePossible() {
+            if (claim()) drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            close();
+        }
+
+        private void schedule() {
+            if (out == null || !claim()) return;
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Senders are saturated; shed this client rather than queue without bound
+                synchronized (pending) {
+                    draining = false;
+                }
+                close();
+            }
+        }
+
+        // True when the caller should run the drain; otherwise the running one picks the work up
+        private boolean claim() {
+            synchronized (pending) {
+                if (closed) return false;
+                if (draining) {
+                    again = true;
+                    return false;
+                }
+                draining = true;
+                return true;
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    writeWhileReady();
+                    synchronized (pending) {
+                        // More updates, or the container reporting the stream writable again
+                        if (again && !closed) {
+                            again = false;
+                            continue;
+                        }
+                        again = false;
+                        draining = false;
+                        break;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // The client went away (the container may already have recycled the response)
+                synchronized (pending) {
+                    draining = false;
+                }
+                close();
+            }
+            completeIfClosed();
+        }
+
+        // Writes until there is nothing left or the connection can't take more; in the latter case
+        // the container calls onWritePossible when the client catches up
+        private void writeWhileReady() throws IOException {
+            while (true) {
+                if (!out.isReady()) {
+                    if (stalledSince == 0) stalledSince = System.currentTimeMillis();
+                    return;
+                }
+                stalledSince = 0;
+                byte[] frame = nextFrame();
+                if (frame != null) {
+                    out.write(frame);
+                    flushDue = true;
+                } else if (flushDue) {
+                    flushDue = false;
+                    out.flush();
+                } else {
+                    return;
+                }
+            }
+        }
+
+        // Null when there is nothing to send or the subscriber was closed meanwhile
+        private byte[] nextFrame() throws JsonProcessingException {
+            Map<String, Object> update;
+            synchronized (pending) {
+                if (closed) return null;
+                if (!connected) {
+                    connected = true;
+                    return CONNECTED;
+                }
+                if (pending.isEmpty()) {
+                    if (!pingDue) return null;
+                    pingDue = false;
+                    return PING;
+                }
+                Iterator<Map<String, Object>> first = pending.values().iterator();
+                update = first.next();
+                first.remove();
+            }
+            return ("event: crowd\ndata: " + objectMapper.writeValueAsString(update) + "\n\n")
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+
+        // Completing the async request releases the connection without waiting on the client.
+        // A running drain completes it on its way out, so the response is never recycled under it.
+        void close() {
+            markClosed();
+            completeIfClosed();
+        }
+
+        private void completeIfClosed() {
+            synchronized (pending) {
+                if (!closed || draining || completed || async == null) return;
+                completed = true;
+            }
+            try {
+                async.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            }
+        }
+
+        // Marks the subscriber closed; true the first time
+        boolean markClosed() {
+            synchronized (pending) {
+                if (closed) return false;
+                closed = true;
+                pending.clear();
+            }
+            subscribers.remove(this);
+            return true;
+        }
+    }
+}
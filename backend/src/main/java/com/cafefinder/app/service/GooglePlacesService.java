@@ -3,8 +3,12 @@ package com.cafefinder.app.service;
 import com.cafefinder.app.dto.GooglePlacesResponse;
 import com.cafefinder.app.dto.GooglePlacesResponse.Place;
 import com.cafefinder.app.model.Cafe;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
@@ -12,6 +16,8 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
 
 @Service
 public class GooglePlacesService {
@@ -23,26 +29,35 @@ public class GooglePlacesService {
     private String baseUrl;
 
     private final RestTemplate restTemplate;
+    private final PlacesResponseCache responseCache;
+    private final ObjectMapper objectMapper;
 
-    public GooglePlacesService(RestTemplate restTemplate) {
+    public GooglePlacesService(RestTemplate restTemplate, PlacesResponseCache responseCache, ObjectMapper objectMapper) {
         this.restTemplate = restTemplate;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
     }
 
     public List<Cafe> searchCafes(String query) {
         List<Cafe> cafes = new ArrayList<>();
 
         // Check if API key is configured
-        if (apiKey == null || apiKey.isBlank()) {
+        if (!isConfigured()) {
             System.out.println("Google Places API key not configured, returning empty list");
             return cafes;
         }
 
         // Try text search first (works for any query) - optimized to reduce API costs
         String textUrl = baseUrl + "/textsearch/json?query={query}&key={key}";
-        GooglePlacesResponse textResponse = restTemplate.getForObject(textUrl, GooglePlacesResponse.class, query, apiKey);
+        GooglePlacesResponse textResponse = get(PlacesResponseCache.TEXT_SEARCH, textUrl, Map.of("query", query),
+                GooglePlacesResponse.class);
 
+        Set<String> seenPlaceIds = new HashSet<>();
         if (textResponse != null && "OK".equals(textResponse.getStatus()) && textResponse.getResults() != null) {
-            cafes.addAll(mapPlacesToCafes(textResponse.getResults()));
+            for (Cafe cafe : mapPlacesToCafes(textResponse.getResults())) {
+                if (cafe.getPlaceId() != null) seenPlaceIds.add(cafe.getPlaceId());
+                cafes.add(cafe);
+            }
         }
 
         // If we have a "coffee shops in [city]" query and results are limited (< 20), try nearby search for more results
@@ -53,23 +68,15 @@ public class GooglePlacesService {
             double[] coordinates = geocodeCity(cityName);
             if (coordinates != null) {
                 // Use nearby search for more results (up to 60) - optimizes API costs
-                String nearbyUrl = baseUrl + "/nearbysearch/json?location={lat},{lng}&radius=20000&type=cafe&key={key}";
-                GooglePlacesResponse nearbyResponse = restTemplate.getForObject(nearbyUrl, GooglePlacesResponse.class,
-                    coordinates[0], coordinates[1], apiKey);
+                GooglePlacesResponse nearbyResponse = nearbySearchPage(coordinates[0], coordinates[1], 20000, null);
 
                 if (nearbyResponse != null && "OK".equals(nearbyResponse.getStatus()) && nearbyResponse.getResults() != null) {
-                    List<Cafe> nearbyCafes = mapPlacesToCafes(nearbyResponse.getResults());
                     // Add only cafes we don't already have
-                    nearbyCafes.forEach(nearbyCafe -> {
-                        boolean exists = cafes.stream().anyMatch(existing ->
-                            existing.getName() != null && nearbyCafe.getName() != null &&
-                            existing.getName().equalsIgnoreCase(nearbyCafe.getName()) &&
-                            existing.getAddress() != null && nearbyCafe.getAddress() != null &&
-                            existing.getAddress().equalsIgnoreCase(nearbyCafe.getAddress()));
-                        if (!exists) {
+                    for (Cafe nearbyCafe : mapPlacesToCafes(nearbyResponse.getResults())) {
+                        if (nearbyCafe.getPlaceId() == null || seenPlaceIds.add(nearbyCafe.getPlaceId())) {
                             cafes.add(nearbyCafe);
                         }
-                    });
+                    }
                 }
             }
         }
@@ -77,10 +84,69 @@ public class GooglePlacesService {
         return cafes;
     }
 
-    private double[] geocodeCity(String cityName) {
+    // Replay-only mode serves recorded responses without a key
+    public boolean isConfigured() {
+        return (apiKey != null && !apiKey.isBlank()) || responseCache.isReplayOnly();
+    }
+
+    // One page of a nearby search; pass the previous page's next_page_token to continue
+    GooglePlacesResponse nearbySearchPage(double lat, double lng, int radiusMeters, String pageToken) {
+        if (pageToken != null) {
+            return get(PlacesResponseCache.NEARBY_SEARCH, baseUrl + "/nearbysearch/json?pagetoken={pagetoken}&key={key}",
+                    Map.of("pagetoken", pageToken), GooglePlacesResponse.class);
+        }
+        return get(PlacesResponseCache.NEARBY_SEARCH,
+                baseUrl + "/nearbysearch/json?location={lat},{lng}&radius={radius}&type=cafe&key={key}",
+                nearbyParams(lat, lng, radiusMeters), GooglePlacesResponse.class);
+    }
+
+    // The same page from the response cache only, or null; lets callers skip rate limiting on hits
+    GooglePlacesResponse cachedNearbySearchPage(double lat, double lng, int radiusMeters, String pageToken) {
+        Map<String, Object> params = pageToken != null ? Map.of("pagetoken", pageToken) : nearbyParams(lat, lng, radiusMeters);
+        String body = responseCache.get(PlacesResponseCache.NEARBY_SEARCH, params);
+        return body != null ? parse(body, GooglePlacesResponse.class) : null;
+    }
+
+    private static Map<String, Object> nearbyParams(double lat, double lng, int radiusMeters) {
+        return Map.of("lat", lat, "lng", lng, "radius", radiusMeters);
+    }
+
+    // Cache-first GET. Only definitive answers (OK / ZERO_RESULTS) are stored; quota errors and
+    // not-yet-valid page tokens must be retried against the API.
+    private <T> T get(String endpoint, String url, Map<String, Object> params, Class<T> type) {
+        String body = responseCache.get(endpoint, params);
+        if (body != null) return parse(body, type);
+        if (responseCache.isReplayOnly()) return null;
+
+        Map<String, Object> uriVariables = new HashMap<>(params);
+        uriVariables.put("key", apiKey);
+        body = restTemplate.getForObject(url, String.class, uriVariables);
+        if (body == null) return null;
+
+        JsonNode json = readTree(body);
+        String status = json.path("status").asText();
+        if ("OK".equals(status) || "ZERO_RESULTS".equals(status)) {
+            responseCache.put(endpoint, params, body);
+        }
+        return objectMapper.convertValue(json, type);
+    }
+
+    private <T> T parse(String body, Class<T> type) {
+        return objectMapper.convertValue(readTree(body), type);
+    }
+
+    private JsonNode readTree(String body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (JsonProcessingException e) {
+            throw new RestClientException("Malformed Places response", e);
+        }
+    }
+
+    double[] geocodeCity(String cityName) {
         try {
             String geocodeUrl = baseUrl.replace("/api/place", "/api/geocode/json?address={address}&key={key}");
-            Map<String, Object> geocodeResponse = restTemplate.getForObject(geocodeUrl, Map.class, cityName, apiKey);
+            Map<String, Object> geocodeResponse = get(PlacesResponseCache.GEOCODE, geocodeUrl, Map.of("address", cityName), Map.class);
 
             if (geocodeResponse != null && "OK".equals(geocodeResponse.get("status"))) {
                 @SuppressWarnings("unchecked")
@@ -105,12 +171,13 @@ public class GooglePlacesService {
         return null;
     }
 
-    private List<Cafe> mapPlacesToCafes(List<Place> places) {
+    List<Cafe> mapPlacesToCafes(List<Place> places) {
         List<Cafe> cafes = new ArrayList<>();
         for (Place place : places) {
             Cafe cafe = new Cafe();
 
             // Basic info
+            cafe.setPlaceId(place.getPlace_id());
             cafe.setName(place.getName());
             cafe.setAvgRating(place.getRating() > 0 ? place.getRating() : 0.0);
             cafe.setReviewsCount(place.getUser_ratings_total());
@@ -119,8 +186,8 @@ public class GooglePlacesService {
             cafe.setLatitude(place.getGeometry().getLocation().getLat());
             cafe.setLongitude(place.getGeometry().getLocation().getLng());
 
-            // Address - parse formatted_address
-            parseAddress(place.getFormatted_address(), cafe);
+            // Address - parse formatted_address (vicinity for nearby search results)
+            parseAddress(place.getFormatted_address() != null ? place.getFormatted_address() : place.getVicinity(), cafe);
 
             // Contact
             cafe.setPhone(place.getFormatted_phone_number());
@@ -222,7 +289,7 @@ public class GooglePlacesService {
         }
     }
 
-    private String parseTimeRange(String dayText) {
+    String parseTimeRange(String dayText) {
         // e.g., "Monday: 8:00 AM – 5:00 PM" -> "8:00-17:00"
         try {
             if (dayText.contains("–")) {
@@ -247,7 +314,7 @@ public class GooglePlacesService {
         return "7:00-19:00";
     }
 
-    private String convertTo24Hour(String time, String ampm) {
+    String convertTo24Hour(String time, String ampm) {
         try {
             String[] timeParts = time.split(":");
             int hour = Integer.parseInt(timeParts[0]);
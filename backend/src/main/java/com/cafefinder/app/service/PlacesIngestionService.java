@@ -0,0 +1,272 @@
+package com.cafefinder.app.service;
+
+import com.cafefinder.app.dto.GooglePlacesResponse;
+import com.cafefinder.app.model.Cafe;
+import com.cafefinder.app.util.GeoUtils;
+import com.cafefinder.app.util.TokenBucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Imports every cafe in a metro area from Google Places. The area is tiled into a grid of
+// nearby-search cells that run concurrently behind a shared token bucket; each cell follows
+// next_page_token, and a cell that comes back full (3 pages = 60 places, the API maximum) is
+// split into four smaller cells. Places are deduped by place_id and upserted in unordered bulk
+// writes keyed on placeId.
+@Service
+public class PlacesIngestionService {
+    private static final int MAX_PAGES = 3;
+    private static final int PAGE_SIZE = 20;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final GooglePlacesService placesService;
+    private final CafeImportService importService;
+    private final CafeCache cafeCache;
+    private final PopularLeaderboard popularLeaderboard;
+    private final int concurrency;
+    private final double requestsPerSecond;
+    private final int burst;
+    private final long pageTokenDelayMs;
+    private final int maxSplitDepth;
+    private final int batchSize;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public PlacesIngestionService(GooglePlacesService placesService, CafeImportService importService,
+                                  CafeCache cafeCache, PopularLeaderboard popularLeaderboard,
+                                  @Value("${google.places.ingest.concurrency:8}") int concurrency,
+                                  @Value("${google.places.ingest.requestsPerSecond:10}") double requestsPerSecond,
+                                  @Value("${google.places.ingest.burst:10}") int burst,
+                                  @Value("${google.places.ingest.pageTokenDelayMs:2000}") long pageTokenDelayMs,
+                                  @Value("${google.places.ingest.maxSplitDepth:2}") int maxSplitDepth,
+                                  @Value("${google.places.ingest.batchSize:200}") int batchSize) {
+        this.placesService = placesService;
+        this.importService = importService;
+        this.cafeCache = cafeCache;
+        this.popularLeaderboard = popularLeaderboard;
+        this.concurrency = concurrency;
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = burst;
+        this.pageTokenDelayMs = pageTokenDelayMs;
+        this.maxSplitDepth = maxSplitDepth;
+        this.batchSize = batchSize;
+    }
+
+    private record Cell(double lat, double lng, double sizeKm, int depth) {}
+
+    private record CellResult(Cell cell, List<Cafe> cafes, boolean saturated) {}
+
+    // Geocodes the city and imports the square of side 2 * radiusKm around it.
+    // Throws IllegalStateException when an import is already running.
+    public Map<String, Object> ingestCity(String city, double radiusKm, double cellKm) throws InterruptedException {
+        if (!placesService.isConfigured()) {
+            throw new IllegalArgumentException("Google Places API key not configured");
+        }
+        double[] center = placesService.geocodeCity(city);
+        if (center == null) {
+            throw new IllegalArgumentException("Could not geocode " + city);
+        }
+        return ingestArea(city, center[0], center[1], radiusKm, cellKm);
+    }
+
+    public Map<String, Object> ingestArea(String label, double lat, double lng, double radiusKm, double cellKm)
+            throws InterruptedException {
+        if (radiusKm <= 0 || cellKm <= 0) {
+            throw new IllegalArgumentException("radiusKm and cellKm must be positive");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An import is already running");
+        }
+
+        long started = System.currentTimeMillis();
+        Run run = new Run();
+        AtomicInteger threadCount = new AtomicInteger();
+        // Fixed pool: the app targets Java 17, so no virtual threads; the token bucket, not the
+        // pool size, bounds the request rate
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "places-ingest-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            CompletionService<CellResult> completion = new ExecutorCompletionService<>(executor);
+            int pending = 0;
+            for (Cell cell : grid(lat, lng, radiusKm, cellKm)) {
+                completion.submit(() -> searchCell(cell, run));
+                pending++;
+                run.cells.incrementAndGet();
+            }
+
+            List<Cafe> buffer = new ArrayList<>(batchSize);
+            while (pending > 0) {
+                CellResult result;
+                try {
+                    result = completion.take().get();
+                } catch (ExecutionException e) {
+                    run.failedCells.incrementAndGet();
+                    System.err.println("Places cell failed: " + e.getCause().getMessage());
+                    pending--;
+                    continue;
+                }
+                pending--;
+
+                buffer.addAll(result.cafes());
+                if (buffer.size() >= batchSize) {
+                    upsert(buffer, run);
+                    buffer.clear();
+                }
+
+                if (result.saturated() && result.cell().depth() < maxSplitDepth) {
+                    for (Cell child : split(result.cell())) {
+                        completion.submit(() -> searchCell(child, run));
+                        pending++;
+                        run.cells.incrementAndGet();
+                    }
+                    run.splitCells.incrementAndGet();
+                }
+            }
+            if (!buffer.isEmpty()) upsert(buffer, run);
+
+            if (run.updated.get() > 0) cafeCache.invalidateAll();
+            if (run.inserted.get() > 0 || run.updated.get() > 0) popularLeaderboard.rebuild();
+        } finally {
+            executor.shutdownNow();
+            running.set(false);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("area", label);
+        report.put("cells", run.cells.get());
+        report.put("splitCells", run.splitCells.get());
+        report.put("failedCells", run.failedCells.get());
+        report.put("requests", run.requests.get());
+        report.put("cacheHits", run.cacheHits.get());
+        report.put("uniquePlaces", run.seen.size());
+        report.put("inserted", run.inserted.get());
+        report.put("updated", run.updated.get());
+        report.put("failedWrites", run.failedWrites.get());
+        report.put("durationMs", System.currentTimeMillis() - started);
+        System.out.println("Places import for " + label + ": " + report);
+        return report;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    // Per-run shared state
+    private final class Run {
+        final TokenBucket limiter = new TokenBucket(requestsPerSecond, burst);
+        final Set<String> seen = ConcurrentHashMap.newKeySet();
+        final AtomicInteger cells = new AtomicInteger();
+        final AtomicInteger splitCells = new AtomicInteger();
+        final AtomicInteger failedCells = new AtomicInteger();
+        final AtomicInteger requests = new AtomicInteger();
+        final AtomicInteger cacheHits = new AtomicInteger();
+        final AtomicInteger inserted = new AtomicInteger();
+        final AtomicInteger updated = new AtomicInteger();
+        final AtomicInteger failedWrites = new AtomicInteger();
+    }
+
+    // Square cells of side cellKm covering the square around the center
+    private List<Cell> grid(double lat, double lng, double radiusKm, double cellKm) {
+        int perSide = (int) Math.ceil(2 * radiusKm / cellKm);
+        double kmPerDegreeLng = GeoUtils.KM_PER_DEGREE_LAT * Math.cos(Math.toRadians(lat));
+        List<Cell> cells = new ArrayList<>(perSide * perSide);
+        for (int row = 0; row < perSide; row++) {
+            for (int col = 0; col < perSide; col++) {
+                double northKm = -radiusKm + cellKm * (row + 0.5);
+                double eastKm = -radiusKm + cellKm * (col + 0.5);
+                cells.add(new Cell(lat + northKm / GeoUtils.KM_PER_DEGREE_LAT, lng + eastKm / kmPerDegreeLng, cellKm, 0));
+            }
+        }
+        return cells;
+    }
+
+    private List<Cell> split(Cell cell) {
+        double quarter = cell.sizeKm() / 4;
+        double kmPerDegreeLng = GeoUtils.KM_PER_DEGREE_LAT * Math.cos(Math.toRadians(cell.lat()));
+        List<Cell> children = new ArrayList<>(4);
+        for (int dy = -1; dy <= 1; dy += 2) {
+            for (int dx = -1; dx <= 1; dx += 2) {
+                children.add(new Cell(cell.lat() + dy * quarter / GeoUtils.KM_PER_DEGREE_LAT,
+                        cell.lng() + dx * quarter / kmPerDegreeLng, cell.sizeKm() / 2, cell.depth() + 1));
+            }
+        }
+        return children;
+    }
+
+    private CellResult searchCell(Cell cell, Run run) throws InterruptedException {
+        // Circle circumscribing the square cell
+        int radiusMeters = (int) Math.ceil(cell.sizeKm() * 1000 * Math.sqrt(2) / 2);
+        List<Cafe> fresh = new ArrayList<>();
+        int pages = 0;
+        int places = 0;
+        String pageToken = null;
+
+        do {
+            // Cached pages skip the rate limiter and the page-token delay
+            GooglePlacesResponse response = placesService.cachedNearbySearchPage(cell.lat(), cell.lng(), radiusMeters, pageToken);
+            if (response != null) {
+                run.cacheHits.incrementAndGet();
+            } else {
+                if (pageToken != null) {
+                    // Google only accepts a token a short while after issuing it
+                    Thread.sleep(pageTokenDelayMs);
+                }
+                response = fetch(cell, radiusMeters, pageToken, run);
+            }
+            if (response == null || !"OK".equals(response.getStatus()) || response.getResults() == null) break;
+
+            pages++;
+            places += response.getResults().size();
+            for (Cafe cafe : placesService.mapPlacesToCafes(response.getResults())) {
+                if (cafe.getPlaceId() != null && run.seen.add(cafe.getPlaceId())) {
+                    fresh.add(cafe);
+                }
+            }
+            pageToken = response.getNext_page_token();
+        } while (pageToken != null && pages < MAX_PAGES);
+
+        return new CellResult(cell, fresh, pages == MAX_PAGES && places >= MAX_PAGES * PAGE_SIZE);
+    }
+
+    private GooglePlacesResponse fetch(Cell cell, int radiusMeters, String pageToken, Run run) throws InterruptedException {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            run.limiter.acquire();
+            run.requests.incrementAndGet();
+            try {
+                GooglePlacesResponse response = placesService.nearbySearchPage(cell.lat(), cell.lng(), radiusMeters, pageToken);
+                String status = response != null ? response.getStatus() : null;
+                boolean tokenNotReady = pageToken != null && "INVALID_REQUEST".equals(status);
+                if (!"OVER_QUERY_LIMIT".equals(status) && !tokenNotReady) return response;
+            } catch (RestClientException e) {
+                if (attempt == MAX_ATTEMPTS) throw e;
+            }
+            Thread.sleep(TimeUnit.SECONDS.toMillis(1L << (attempt - 1)));
+        }
+        return null;
+    }
+
+    private void upsert(List<Cafe> cafes, Run run) {
+        CafeImportService.Result result = importService.upsertBatch(cafes);
+        run.inserted.addAndGet(result.inserted());
+        run.updated.addAndGet(result.updated());
+        run.failedWrites.addAndGet(result.failed());
+    }
+}
@@ -0,0 +1,102 @@
+package com.cafefinder.app.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+// On-disk cache of raw Google Places / Geocoding responses. Entries are content-addressed by
+// endpoint + request parameters (API key excluded), stored as
+//     <dir>/<endpoint>/<first 2 hex chars>/<sha-256>.json
+// and expire by file age with a TTL per endpoint. Re-seeding a city that was imported recently
+// therefore makes no API calls. In replay-only mode entries never expire and misses never call
+// out, so a populated directory works as an offline fixture set.
+@Component
+public class PlacesResponseCache {
+    public static final String GEOCODE = "geocode";
+    public static final String TEXT_SEARCH = "textsearch";
+    public static final String NEARBY_SEARCH = "nearbysearch";
+
+    private final boolean enabled;
+    private final boolean replayOnly;
+    private final Path dir;
+    private final Map<String, Long> ttlMs;
+
+    public PlacesResponseCache(@Value("${google.places.cache.enabled:true}") boolean enabled,
+                               @Value("${google.places.cache.replayOnly:false}") boolean replayOnly,
+                               @Value("${google.places.cache.dir:.places-cache}") String dir,
+                               @Value("${google.places.cache.geocodeTtlMs:2592000000}") long geocodeTtlMs,
+                               @Value("${google.places.cache.textsearchTtlMs:604800000}") long textSearchTtlMs,
+                               @Value("${google.places.cache.nearbysearchTtlMs:86400000}") long nearbySearchTtlMs) {
+        this.enabled = enabled || replayOnly;
+        this.replayOnly = replayOnly;
+        this.dir = Paths.get(dir);
+        this.ttlMs = Map.of(GEOCODE, geocodeTtlMs, TEXT_SEARCH, textSearchTtlMs, NEARBY_SEARCH, nearbySearchTtlMs);
+    }
+
+    public boolean isReplayOnly() {
+        return replayOnly;
+    }
+
+    // Cached body, or null when missing, expired or unreadable
+    public String get(String endpoint, Map<String, ?> params) {
+        if (!enabled) return null;
+        Path file = pathFor(endpoint, params);
+        try {
+            if (!Files.isRegularFile(file)) return null;
+            if (!replayOnly) {
+                FileTime modified = Files.getLastModifiedTime(file);
+                if (System.currentTimeMillis() - modified.toMillis() > ttlMs.getOrDefault(endpoint, 0L)) {
+                    Files.deleteIfExists(file);
+                    return null;
+                }
+            }
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Places cache read failed for " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void put(String endpoint, Map<String, ?> params, String body) {
+        if (!enabled || replayOnly || body == null) return;
+        Path file = pathFor(endpoint, params);
+        try {
+            Files.createDirectories(file.getParent());
+            // Write then rename so concurrent readers never see a partial file
+            Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.writeString(tmp, body, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Places cache write failed for " + file + ": " + e.getMessage());
+        }
+    }
+
+    private Path pathFor(String endpoint, Map<String, ?> params) {
+        // Sorted so parameter order never changes the key
+        StringBuilder key = new StringBuilder(endpoint);
+        new TreeMap<>(params).forEach((name, value) -> key.append('\n').append(name).append('=').append(value));
+        String hash = sha256(key.toString());
+        return dir.resolve(endpoint).resolve(hash.substring(0, 2)).resolve(hash + ".json");
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.cafefinder.app.service;
+
+import com.cafefinder.app.config.StartupWarmup;
+import com.cafefinder.app.dto.CafeSummary;
+import com.cafefinder.app.dto.CursorPage;
+import com.cafefinder.app.model.Cafe;
+import com.cafefinder.app.util.CursorCodec;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// In-memory popular-cafe rankings, global and per city, so the homepage never sorts in Mongo.
+// Cafes are ranked by a Bayesian average: each cafe's rating is pulled toward the catalogue-wide
+// mean C with the weight of `priorWeight` phantom reviews, i.e.
+//     score = (n * R + m * C) / (n + m)
+// so one 5-star review cannot outrank hundreds of reviews averaging 4.8.
+// A full rebuild runs on a schedule; cafes whose ratings change are re-placed in between.
+@Service
+@Lazy(false) // holds @Scheduled rebuilds; lazy init would never schedule them
+public class PopularLeaderboard {
+    private static final String GLOBAL = "";
+
+    private static final Comparator<Ranked> ORDER = Comparator
+            .comparingDouble(Ranked::score).reversed()
+            .thenComparing(Comparator.comparingInt((Ranked r) -> r.cafe().getReviewsCount()).reversed())
+            .thenComparing(r -> r.cafe().getId());
+
+    private final MongoTemplate mongoTemplate;
+    private final StartupWarmup warmup;
+    private final int maxEntries;
+    private final double priorWeight;
+
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private volatile Snapshot snapshot;
+
+    record Ranked(Cafe cafe, double score) {}
+
+    // Immutable: replaced wholesale, so readers never see a half-updated board
+    private record Snapshot(Map<String, List<Ranked>> boards, double meanRating) {}
+
+    public PopularLeaderboard(MongoTemplate mongoTemplate, StartupWarmup warmup,
+                              @Value("${cafefinder.popular.maxEntries:500}") int maxEntries,
+                              @Value("${cafefinder.popular.priorWeight:20}") double priorWeight) {
+        this.mongoTemplate = mongoTemplate;
+        this.warmup = warmup;
+        this.maxEntries = maxEntries;
+        this.priorWeight = priorWeight;
+    }
+
+    // Keyset page over the board ordered by (score desc, reviewsCount desc, id asc); cursor = [score, reviewsCount, id].
+    // Empty until the first build has finished: building is left to warm-up and the schedule, so
+    // requests never scan the whole collection or queue up behind a rebuild.
+    public CursorPage<CafeSummary> page(String city, int pageSize, String cursor) {
+        Snapshot current = snapshot;
+        if (current == null) return new CursorPage<>(List.of(), null);
+        List<Ranked> board = current.boards().getOrDefault(cityKey(city), List.of());
+
+        int from = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            List<String> keys = CursorCodec.decode(cursor, 3);
+            Cafe probe = new Cafe();
+            probe.setId(keys.get(2));
+            probe.setReviewsCount(Integer.parseInt(keys.get(1)));
+            int pos = Collections.binarySearch(board, new Ranked(probe, Double.parseDouble(keys.get(0))), ORDER);
+            from = pos >= 0 ? pos + 1 : -pos - 1;
+        }
+
+        int to = Math.min(board.size(), from + pageSize);
+        List<CafeSummary> items = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) items.add(CafeSummary.from(board.get(i).cafe()));
+
+        if (to >= board.size() || items.isEmpty()) return new CursorPage<>(items, null);
+        Ranked last = board.get(to - 1);
+        return new CursorPage<>(items, CursorCodec.encode(List.of(
+                String.valueOf(last.score()), String.valueOf(last.cafe().getReviewsCount()), last.cafe().getId())));
+    }
+
+    // Ratings or details of a cafe changed; it is re-placed on the next incremental pass
+    public void markDirty(String cafeId) {
+        if (cafeId != null) dirty.add(cafeId);
+    }
+
+    // First build once seeding and migrations (CommandLineRunners) have finished; queued behind
+    // them when warm-up is deferred
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        warmup.run("popular-leaderboard", this::rebuild);
+    }
+
+    @Scheduled(initialDelayString = "${cafefinder.popular.rebuildIntervalMs:600000}",
+               fixedDelayString = "${cafefinder.popular.rebuildIntervalMs:600000}")
+    public synchronized void rebuild() {
+        Set<String> pendingBeforeRebuild = new HashSet<>(dirty);
+
+        // Pass 1: catalogue-wide mean rating, weighted by review count, computed in Mongo
+        double mean = meanRating();
+
+        // Pass 2: one streamed scan keeping a bounded min-heap per board
+        Map<String, PriorityQueue<Ranked>> heaps = new HashMap<>();
+        try (Stream<Cafe> cafes = mongoTemplate.stream(summaryQuery(), Cafe.class)) {
+            cafes.forEach(cafe -> {
+                Ranked ranked = new Ranked(cafe, score(cafe.getAvgRating(), cafe.getReviewsCount(), mean));
+                offer(heaps.computeIfAbsent(GLOBAL, k -> new PriorityQueue<>(ORDER.reversed())), ranked);
+                String city = cityKey(cafe.getCity());
+                if (!city.isEmpty()) {
+                    offer(heaps.computeIfAbsent(city, k -> new PriorityQueue<>(ORDER.reversed())), ranked);
+                }
+            });
+        }
+
+        Map<String, List<Ranked>> boards = new HashMap<>();
+        heaps.forEach((key, heap) -> {
+            List<Ranked> board = new ArrayList<>(heap);
+            board.sort(ORDER);
+            boards.put(key, List.copyOf(board));
+        });
+        snapshot = new Snapshot(boards, mean);
+        dirty.removeAll(pendingBeforeRebuild);
+    }
+
+    // Re-places cafes marked dirty since the last pass with one $in query
+    @Scheduled(fixedDelayString = "${cafefinder.popular.incrementalIntervalMs:5000}")
+    public synchronized void applyDirty() {
+        if (dirty.isEmpty() || snapshot == null) return;
+        List<String> ids = new ArrayList<>(dirty);
+        dirty.removeAll(ids);
+
+        Snapshot current = snapshot;
+        Map<String, Cafe> fresh = new HashMap<>();
+        Query query = summaryQuery().addCriteria(Criteria.where("id").in(ids));
+        for (Cafe cafe : mongoTemplate.find(query, Cafe.class)) {
+            fresh.put(cafe.getId(), cafe);
+        }
+
+        Map<String, List<Ranked>> boards = new HashMap<>(current.boards());
+        Set<String> changed = new HashSet<>(ids);
+        Set<String> affected = new HashSet<>();
+        affected.add(GLOBAL);
+        for (Cafe cafe : fresh.values()) affected.add(cityKey(cafe.getCity()));
+        // Cafes may also have left a city board (moved or deleted)
+        current.boards().forEach((key, board) -> {
+            for (Ranked r : board) {
+                if (changed.contains(r.cafe().getId())) {
+                    affected.add(key);
+                    break;
+                }
+            }
+        });
+
+        for (String key : affected) {
+            List<Ranked> board = new ArrayList<>(boards.getOrDefault(key, List.of()));
+            board.removeIf(r -> changed.contains(r.cafe().getId()));
+            for (Cafe cafe : fresh.values()) {
+                if (key.equals(GLOBAL) || key.equals(cityKey(cafe.getCity()))) {
+                    board.add(new Ranked(cafe, score(cafe.getAvgRating(), cafe.getReviewsCount(), current.meanRating())));
+                }
+            }
+            board.sort(ORDER);
+            // A cafe that falls off the end is not replaced until the next rebuild
+            if (board.size() > maxEntries) board = board.subList(0, maxEntries);
+            boards.put(key, List.copyOf(board));
+        }
+        snapshot = new Snapshot(boards, current.meanRating());
+    }
+
+    double score(double avgRating, int reviewsCount, double mean) {
+        double n = Math.max(0, reviewsCount);
+        return (n * avgRating + priorWeight * mean) / (n + priorWeight);
+    }
+
+    // Boards only hold what a cafe card needs, keeping memory per entry small
+    private static Query summaryQuery() {
+        Query query = new Query();
+        query.fields().include(CafeSummary.FIELDS);
+        return query;
+    }
+
+    private void offer(PriorityQueue<Ranked> heap, Ranked ranked) {
+        if (heap.size() < maxEntries) {
+            heap.add(ranked);
+        } else if (ORDER.compare(ranked, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(ranked);
+        }
+    }
+
+    private double meanRating() {
+        Document group = new Document("_id", null)
+                .append("weighted", new Document("$sum", new Document("$multiply", List.of("$avgRating", "$reviewsCount"))))
+                .append("reviews", new Document("$sum", "$reviewsCount"));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("reviewsCount").gt(0)),
+                context -> new Document("$group", group));
+        Document result = mongoTemplate.aggregate(aggregation, Cafe.class, Document.class).getUniqueMappedResult();
+        if (result == null) return 0.0;
+        double reviews = ((Number) result.get("reviews")).doubleValue();
+        return reviews > 0 ? ((Number) result.get("weighted")).doubleValue() / reviews : 0.0;
+    }
+
+    private static String cityKey(String city) {
+        return city == null ? GLOBAL : city.trim().toLowerCase(Locale.ROOT);
+    }
+}
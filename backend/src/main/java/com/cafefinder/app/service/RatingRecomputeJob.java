@@ -0,0 +1,310 @@
+package com.cafefinder.app.service;
+
+import com.cafefinder.app.model.Cafe;
+import com.cafefinder.app.model.Review;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Recomputes every cafe's rating totals from approved reviews with one $group pass,
+// applied in unordered bulk writes. Progress is checkpointed after each batch so an
+// interrupted run resumes from the last cafe written instead of starting over.
+//
+// Every instance schedules the job but they share one checkpoint, so a run first takes a
+// lease on the checkpoint document (the same scheme as the migration lock). The holder renews
+// it while running and every checkpoint write is conditional on still holding it; the other
+// instances skip their run.
+@Service
+@Lazy(false)
+public class RatingRecomputeJob {
+    private static final String CHECKPOINTS = "job_checkpoints";
+    private static final String JOB_ID = "rating-recompute";
+
+    private final MongoTemplate mongoTemplate;
+    private final CafeCache cafeCache;
+    private final PopularLeaderboard popularLeaderboard;
+    private final int batchSize;
+    private final long leaseMs;
+    private final String owner = UUID.randomUUID().toString();
+    private final ScheduledExecutorService leaseRenewer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "rating-recompute-lease");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "rating-recompute");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private volatile String state = "IDLE";
+    private volatile String lastCafeId;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public RatingRecomputeJob(MongoTemplate mongoTemplate, CafeCache cafeCache, PopularLeaderboard popularLeaderboard,
+                              @Value("${cafefinder.ratings.recomputeBatchSize:500}") int batchSize,
+                              @Value("${cafefinder.ratings.recomputeLeaseMs:60000}") long leaseMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.cafeCache = cafeCache;
+        this.popularLeaderboard = popularLeaderboard;
+        this.batchSize = batchSize;
+        this.leaseMs = leaseMs;
+    }
+
+    // Periodic reconciliation so drift in the incremental path never lingers
+    @Scheduled(initialDelayString = "${cafefinder.ratings.reconcileInitialDelayMs:60000}",
+               fixedDelayString = "${cafefinder.ratings.reconcileIntervalMs:21600000}")
+    public void reconcile() {
+        start(false);
+    }
+
+    // Returns false when a run is already in progress here or on another instance
+    public boolean start(boolean fromScratch) {
+        if (!running.compareAndSet(false, true)) return false;
+        try {
+            if (!acquireLease()) {
+                running.set(false);
+                return false;
+            }
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        state = "RUNNING";
+
+        long periodMs = Math.max(leaseMs / 3, 1);
+        ScheduledFuture<?> renewal = leaseRenewer.scheduleAtFixedRate(this::renewLease, periodMs, periodMs, TimeUnit.MILLISECONDS);
+        executor.submit(() -> {
+            try {
+                run(fromScratch);
+            } catch (Exception e) {
+                state = "FAILED";
+                error = e.getMessage();
+                System.err.println("Rating recompute failed: " + e.getMessage());
+            } finally {
+                renewal.cancel(false);
+                releaseLease();
+                finishedAt = Instant.now();
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", state);
+        status.put("processed", processed.get());
+        status.put("total", total.get());
+        status.put("lastCafeId", lastCafeId);
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        status.put("error", error);
+        return status;
+    }
+
+    private void run(boolean fromScratch) {
+        Document checkpoint = fromScratch ? null : mongoTemplate.findById(JOB_ID, Document.class, CHECKPOINTS);
+        boolean resuming = checkpoint != null && "RUNNING".equals(checkpoint.getString("state"));
+
+        error = null;
+        finishedAt = null;
+        lastCafeId = resuming ? checkpoint.getString("lastCafeId") : null;
+        startedAt = resuming ? checkpoint.getDate("runStartedAt").toInstant() : Instant.now();
+        processed.set(resuming ? checkpoint.get("processed", Number.class).longValue() : 0);
+        saveCheckpoint();
+
+        Criteria approved = Criteria.where("status").is(CafeService.APPROVED);
+        total.set(countCafes(approved));
+
+        Criteria pending = lastCafeId != null
+                ? new Criteria().andOperator(approved, Criteria.where("cafeId").gt(lastCafeId))
+                : approved;
+        Document group = CafeService.ratingAccumulators().append("_id", "$cafeId");
+        AggregationOperation groupByCafe = context -> new Document("$group", group);
+        AggregationOperation sortByCafe = context -> new Document("$sort", new Document("_id", 1));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(pending),
+                groupByCafe,
+                sortByCafe)
+                .withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+
+        BulkOperations bulk = null;
+        List<String> batchIds = new ArrayList<>(batchSize);
+        String batchLastId = null;
+        try (Stream<Document> groups = mongoTemplate.aggregateStream(aggregation, Review.class, Document.class)) {
+            for (Document result : (Iterable<Document>) groups::iterator) {
+                if (bulk == null) bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Cafe.class);
+
+                String cafeId = result.getString("_id");
+                Update update = CafeService.totalsUpdate(result).set("ratingTotals.recomputedAt", startedAt);
+                bulk.updateOne(Query.query(Criteria.where("id").is(cafeId)), update);
+                batchIds.add(cafeId);
+                batchLastId = cafeId;
+
+                if (batchIds.size() == batchSize) {
+                    flush(bulk, batchIds, batchLastId);
+                    bulk = null;
+                    batchIds.clear();
+                }
+            }
+        }
+        if (bulk != null) flush(bulk, batchIds, batchLastId);
+
+        long reset = resetStale(approved, groupByCafe);
+        popularLeaderboard.rebuild();
+
+        state = "COMPLETED";
+        saveCheckpoint();
+        System.out.println("Recomputed ratings for " + processed.get() + " cafes, reset " + reset + " without approved reviews");
+    }
+
+    // Cafes with totals that this run didn't write. Most had all their reviews rejected or deleted
+    // since the last run and are zeroed, but a cafe whose first approved review arrived after its
+    // batch was processed is also here, so each batch is grouped again and only the cafes still
+    // without approved reviews are reset. Returns the number reset.
+    private long resetStale(Criteria approved, AggregationOperation groupByCafe) {
+        Query stale = Query.query(new Criteria().andOperator(
+                CafeService.hasReviewTotals(),
+                new Criteria().orOperator(
+                        Criteria.where("ratingTotals.recomputedAt").exists(false),
+                        Criteria.where("ratingTotals.recomputedAt").lt(startedAt))));
+        stale.fields().include("id");
+        List<String> staleIds = mongoTemplate.find(stale, Cafe.class).stream().map(Cafe::getId).toList();
+
+        long reset = 0;
+        for (int from = 0; from < staleIds.size(); from += batchSize) {
+            List<String> ids = staleIds.subList(from, Math.min(from + batchSize, staleIds.size()));
+            Aggregation regroup = Aggregation.newAggregation(
+                    Aggregation.match(new Criteria().andOperator(approved, Criteria.where("cafeId").in(ids))),
+                    groupByCafe);
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Cafe.class);
+            Set<String> recomputed = new HashSet<>();
+            for (Document result : mongoTemplate.aggregate(regroup, Review.class, Document.class)) {
+                String cafeId = result.getString("_id");
+                bulk.updateOne(Query.query(Criteria.where("id").is(cafeId)),
+                        CafeService.totalsUpdate(result).set("ratingTotals.recomputedAt", startedAt));
+                recomputed.add(cafeId);
+            }
+            for (String cafeId : ids) {
+                if (recomputed.contains(cafeId)) continue;
+                bulk.updateOne(Query.query(Criteria.where("id").is(cafeId)),
+                        CafeService.totalsUpdate(null).set("ratingTotals.recomputedAt", startedAt));
+                reset++;
+            }
+            bulk.execute();
+            cafeCache.invalidate(ids);
+        }
+        return reset;
+    }
+
+    private void flush(BulkOperations bulk, List<String> batchIds, String batchLastId) {
+        bulk.execute();
+        cafeCache.invalidate(batchIds);
+        processed.addAndGet(batchIds.size());
+        lastCafeId = batchLastId;
+        saveCheckpoint();
+    }
+
+    private long countCafes(Criteria approved) {
+        Aggregation count = Aggregation.newAggregation(
+                Aggregation.match(approved),
+                Aggregation.group("cafeId"),
+                Aggregation.count().as("total"));
+        Document result = mongoTemplate.aggregate(count, Review.class, Document.class).getUniqueMappedResult();
+        return result != null ? ((Number) result.get("total")).longValue() : 0;
+    }
+
+    // Only written while holding the lease; losing it (e.g. after a long GC pause let the lease
+    // expire and another instance take over) fails the run rather than interleave checkpoints
+    private void saveCheckpoint() {
+        Update update = new Update()
+                .set("state", state)
+                .set("lastCafeId", lastCafeId)
+                .set("processed", processed.get())
+                .set("runStartedAt", startedAt)
+                .set("updatedAt", Instant.now());
+        if (mongoTemplate.updateFirst(ownLease(), update, CHECKPOINTS).getMatchedCount() == 0) {
+            throw new IllegalStateException("Lost the rating recompute lease to another instance");
+        }
+    }
+
+    // Takes the lease when it is free, expired or already ours. A duplicate key on the upsert
+    // means the checkpoint exists with a live lease held by another instance.
+    private boolean acquireLease() {
+        Date now = new Date();
+        Query free = Query.query(new Criteria().andOperator(
+                Criteria.where("_id").is(JOB_ID),
+                new Criteria().orOperator(
+                        Criteria.where("leaseExpiresAt").exists(false),
+                        Criteria.where("leaseExpiresAt").lt(now),
+                        Criteria.where("leaseOwner").is(owner))));
+        Update take = new Update()
+                .set("leaseOwner", owner)
+                .set("leaseExpiresAt", new Date(now.getTime() + leaseMs));
+        try {
+            mongoTemplate.findAndModify(free, take, FindAndModifyOptions.options().upsert(true), Document.class, CHECKPOINTS);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private void renewLease() {
+        try {
+            Update renew = new Update().set("leaseExpiresAt", new Date(System.currentTimeMillis() + leaseMs));
+            mongoTemplate.updateFirst(ownLease(), renew, CHECKPOINTS);
+        } catch (RuntimeException e) {
+            // Try again on the next tick; the lease still has two thirds left
+            System.err.println("Failed to renew the rating recompute lease: " + e.getMessage());
+        }
+    }
+
+    private void releaseLease() {
+        try {
+            mongoTemplate.updateFirst(ownLease(), new Update().unset("leaseOwner").unset("leaseExpiresAt"), CHECKPOINTS);
+        } catch (RuntimeException e) {
+            // The lease expires on its own
+            System.err.println("Failed to release the rating recompute lease: " + e.getMessage());
+        }
+    }
+
+    private Query ownLease() {
+        return Query.query(Criteria.where("_id").is(JOB_ID).and("leaseOwner").is(owner));
+    }
+}
@@ -0,0 +1,189 @@
+package com.cafefinder.app.service;
+
+import com.cafefinder.app.dto.CursorPage;
+import com.cafefinder.app.model.Review;
+import com.cafefinder.app.util.CursorCodec;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.bson.Document;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Admin review queue, dashboard counts and moderation. The queue and counts are backed by the
+// (status, createdAt, _id) and (createdAt, _id) indexes so neither depends on the size of the
+// reviews collection.
+@Service
+public class ReviewModerationService {
+    public static final String ALL = "ALL";
+    public static final String PENDING = "PENDING";
+
+    public static final Set<String> STATUSES = Set.of(PENDING, CafeService.APPROVED, "REJECTED");
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final CafeService cafeService;
+
+    public record Decision(String reviewId, String status, String adminNotes) {}
+
+    public ReviewModerationService(MongoTemplate mongoTemplate, CafeService cafeService) {
+        this.mongoTemplate = mongoTemplate;
+        this.cafeService = cafeService;
+    }
+
+    // Applies moderation decisions with one unordered bulk write, then adjusts the rating totals
+    // of every affected cafe once. Statuses must already be validated against STATUSES; a review
+    // listed more than once takes its last decision.
+    //
+    // Each write only matches while the review still has the status read here. It's an upsert,
+    // so when another moderation got there first the insert attempt fails with a duplicate _id and
+    // the bulk result names that write: only the writes that went through change ratings, and a
+    // review is never counted twice. Conflicting ids are returned under "conflicts", writes that
+    // failed for other reasons under "failed".
+    public Map<String, Object> moderate(List<Decision> decisions, String adminId) {
+        Map<String, Decision> byId = new LinkedHashMap<>();
+        for (Decision decision : decisions) byId.put(decision.reviewId(), decision);
+
+        // Current state, for the rating deltas; review bodies are not needed
+        Query current = Query.query(Criteria.where("id").in(byId.keySet()));
+        current.fields().exclude("text", "tasteNotes", "photos");
+        List<Review> reviews = mongoTemplate.find(current, Review.class);
+
+        List<String> notFound = new ArrayList<>(byId.keySet());
+        Instant now = Instant.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Review.class);
+        for (Review review : reviews) {
+            Decision decision = byId.get(review.getId());
+            notFound.remove(review.getId());
+            bulk.upsert(Query.query(Criteria.where("id").is(review.getId()).and("status").is(review.getStatus())), new Update()
+                    .set("status", decision.status())
+                    .set("adminId", adminId)
+                    .set("adminNotes", decision.adminNotes())
+                    .set("reviewedAt", now));
+        }
+
+        Set<Integer> failed = new HashSet<>();
+        Set<Integer> conflicted = new HashSet<>();
+        List<BulkWriteUpsert> upserts = List.of();
+        if (!reviews.isEmpty()) {
+            try {
+                upserts = bulk.execute().getUpserts();
+            } catch (BulkOperationException e) {
+                // Status conflicts, or a partial failure: the writes that did go through still
+                // need their rating change
+                e.getErrors().forEach(error -> {
+                    failed.add(error.getIndex());
+                    if (error.getCode() == DUPLICATE_KEY) conflicted.add(error.getIndex());
+                });
+                BulkWriteResult partial = e.getResult();
+                upserts = partial != null ? partial.getUpserts() : List.of();
+            }
+        }
+
+        // An upsert that inserted means the review was deleted after it was read; drop the stub
+        List<Object> inserted = new ArrayList<>();
+        for (BulkWriteUpsert upsert : upserts) {
+            failed.add(upsert.getIndex());
+            inserted.add(upsert.getId());
+            notFound.add(reviews.get(upsert.getIndex()).getId());
+        }
+        if (!inserted.isEmpty()) {
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(Review.class))
+                    .deleteMany(new Document("_id", new Document("$in", inserted)));
+        }
+
+        List<Review> changed = new ArrayList<>();
+        List<String> conflicts = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        Map<String, String> previousStatus = new HashMap<>();
+        for (int i = 0; i < reviews.size(); i++) {
+            Review review = reviews.get(i);
+            if (failed.contains(i)) {
+                if (conflicted.contains(i)) conflicts.add(review.getId());
+                else if (!notFound.contains(review.getId())) errors.add(review.getId());
+                continue;
+            }
+            previousStatus.put(review.getId(), review.getStatus());
+            review.setStatus(byId.get(review.getId()).status());
+            changed.add(review);
+        }
+        int cafesUpdated = cafeService.applyStatusChanges(changed, previousStatus);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requested", byId.size());
+        result.put("updated", changed.size());
+        result.put("cafesUpdated", cafesUpdated);
+        result.put("notFound", notFound);
+        result.put("conflicts", conflicts);
+        result.put("failed", errors);
+        return result;
+    }
+
+    // Keyset page of reviews with the given status (or ALL). Pending reviews come oldest first so
+    // the queue is worked in order; everything else newest first. Cursor = [createdAt millis, id].
+    public CursorPage<Review> queue(String status, int pageSize, String cursor) {
+        boolean oldestFirst = PENDING.equals(status);
+        Sort.Direction direction = oldestFirst ? Sort.Direction.ASC : Sort.Direction.DESC;
+
+        Query query = new Query();
+        if (!ALL.equals(status)) {
+            query.addCriteria(Criteria.where("status").is(status));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            List<String> keys = CursorCodec.decode(cursor, 2);
+            Instant createdAt = Instant.ofEpochMilli(Long.parseLong(keys.get(0)));
+            String id = keys.get(1);
+            query.addCriteria(new Criteria().orOperator(
+                oldestFirst ? Criteria.where("createdAt").gt(createdAt) : Criteria.where("createdAt").lt(createdAt),
+                new Criteria().andOperator(Criteria.where("createdAt").is(createdAt),
+                        oldestFirst ? Criteria.where("id").gt(id) : Criteria.where("id").lt(id))
+            ));
+        }
+        query.with(Sort.by(direction, "createdAt", "id"));
+        query.limit(pageSize + 1);
+
+        List<Review> results = mongoTemplate.find(query, Review.class);
+        if (results.size() <= pageSize) return new CursorPage<>(results, null);
+        Review last = results.get(pageSize - 1);
+        return new CursorPage<>(results.subList(0, pageSize), CursorCodec.encode(List.of(
+                String.valueOf(last.getCreatedAt().toEpochMilli()), last.getId())));
+    }
+
+    // Review counts per status in one aggregation; sorting on status lets Mongo answer it from
+    // the (status, createdAt) index without touching review documents
+    public Map<String, Object> stats() {
+        List<Document> pipeline = List.of(
+                new Document("$sort", new Document("status", 1)),
+                new Document("$group", new Document("_id", "$status").append("count", new Document("$sum", 1))));
+
+        long total = 0;
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (Document row : mongoTemplate.getCollection(mongoTemplate.getCollectionName(Review.class)).aggregate(pipeline)) {
+            long count = ((Number) row.get("count")).longValue();
+            total += count;
+            Object status = row.get("_id");
+            if (status != null) byStatus.put(status.toString(), count);
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalReviews", total);
+        stats.put("pendingReviews", byStatus.getOrDefault(PENDING, 0L));
+        stats.put("approvedReviews", byStatus.getOrDefault("APPROVED", 0L));
+        stats.put("rejectedReviews", byStatus.getOrDefault("REJECTED", 0L));
+        return stats;
+    }
+}
@@ -0,0 +1,177 @@
+package com.cafefinder.app.service;
+
+import com.cafefinder.app.model.Review;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Likes and helpful votes, one per user per review, without rewriting the review document.
+//
+// Voters are stored as 64-bit hashes of the user id in `review_votes`, striped over `shards`
+// documents per review and kind (the user's hash picks the shard). Recording a vote is one
+// conditional upsert on the voter's shard: it only matches while the hash is absent, so a
+// repeat vote fails with a duplicate key and nothing is counted twice. Each shard stays small
+// even for very popular reviews, and no per-(user, review) lookup documents are kept.
+//
+// The review's own counter is then bumped with an atomic $inc. Reviews receiving more than
+// `hotThreshold` votes in one fold interval switch to striped counting: the per-vote $inc is
+// skipped and the counter is periodically set to the sum of the shard counts instead, so a
+// viral review doesn't serialize every vote on one document. A review goes back to inline
+// counting after a quiet interval. Counts from before review_votes existed are carried in one
+// extra "legacy" shard per review (see ReviewVoteMigration), so the fold keeps them.
+@Service
+@Lazy(false) // hosts the fold schedule
+public class ReviewVoteService {
+    public static final String VOTES = "review_votes";
+
+    public enum Kind {
+        LIKE("likes"), HELPFUL("helpfulVotes");
+
+        private final String field;
+
+        Kind(String field) {
+            this.field = field;
+        }
+
+        public String field() {
+            return field;
+        }
+    }
+
+    // counted is false when the user had already voted; review is null when it doesn't exist
+    public record VoteResult(Review review, boolean counted) {}
+
+    private final MongoTemplate mongoTemplate;
+    private final int shards;
+    private final int hotThreshold;
+    private final Map<String, AtomicInteger> recentVotes = new ConcurrentHashMap<>();
+    private final Set<String> striped = ConcurrentHashMap.newKeySet();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private volatile boolean indexEnsured;
+
+    public ReviewVoteService(MongoTemplate mongoTemplate,
+                             @Value("${cafefinder.reviews.votes.shards:16}") int shards,
+                             @Value("${cafefinder.reviews.votes.hotThreshold:50}") int hotThreshold) {
+        this.mongoTemplate = mongoTemplate;
+        this.shards = shards;
+        this.hotThreshold = hotThreshold;
+    }
+
+    public VoteResult vote(String reviewId, String userId, Kind kind) {
+        if (!mongoTemplate.exists(Query.query(Criteria.where("id").is(reviewId)), Review.class)) {
+            return new VoteResult(null, false);
+        }
+        ensureIndex();
+
+        long voter = hash(userId);
+        String shardId = reviewId + ":" + kind.name() + ":" + Math.floorMod(voter, shards);
+        if (!addVoter(shardId, reviewId, kind, voter)) {
+            return new VoteResult(mongoTemplate.findById(reviewId, Review.class), false);
+        }
+
+        String counterKey = reviewId + ":" + kind.name();
+        int recent = recentVotes.computeIfAbsent(counterKey, k -> new AtomicInteger()).incrementAndGet();
+        if (recent > hotThreshold || striped.contains(counterKey)) {
+            striped.add(counterKey);
+            dirty.add(counterKey);
+            return new VoteResult(mongoTemplate.findById(reviewId, Review.class), true);
+        }
+        Review updated = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(reviewId)),
+                new Update().inc(kind.field(), 1),
+                FindAndModifyOptions.options().returnNew(true),
+                Review.class);
+        return new VoteResult(updated, true);
+    }
+
+    // False when the shard already holds the voter. The conditional upsert raises a duplicate key
+    // either for that or when another vote created the same new shard first; in the latter case
+    // the shard exists now, so a single retry turns into a plain update (or the same duplicate
+    // key if that other vote was ours).
+    private boolean addVoter(String shardId, String reviewId, Kind kind, long voter) {
+        Query query = Query.query(Criteria.where("_id").is(shardId).and("voters").ne(voter));
+        Update update = new Update().push("voters", voter).inc("count", 1)
+                .setOnInsert("reviewId", reviewId).setOnInsert("kind", kind.name());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                mongoTemplate.upsert(query, update, VOTES);
+                return true;
+            } catch (DuplicateKeyException e) {
+                if (attempt == 2) return false;
+            }
+        }
+    }
+
+    public void deleteVotes(String reviewId) {
+        mongoTemplate.remove(Query.query(Criteria.where("reviewId").is(reviewId)), VOTES);
+    }
+
+    // Sets striped counters to their shard totals, legacy shard included; the set is absolute, so
+    // votes that were also $inc'ed inline before the review turned hot are not double counted
+    @Scheduled(fixedDelayString = "${cafefinder.reviews.votes.foldIntervalMs:2000}")
+    public void fold() {
+        Set<String> active = new HashSet<>(recentVotes.keySet());
+        recentVotes.clear();
+        List<String> keys = new ArrayList<>(dirty);
+        dirty.removeAll(keys);
+
+        Map<String, List<String>> reviewIdsByKind = new HashMap<>();
+        for (String key : keys) {
+            int split = key.lastIndexOf(':');
+            reviewIdsByKind.computeIfAbsent(key.substring(split + 1), k -> new ArrayList<>()).add(key.substring(0, split));
+        }
+
+        reviewIdsByKind.forEach((kindName, reviewIds) -> {
+            Kind kind = Kind.valueOf(kindName);
+            List<Document> pipeline = List.of(
+                    new Document("$match", new Document("reviewId", new Document("$in", reviewIds)).append("kind", kindName)),
+                    new Document("$group", new Document("_id", "$reviewId").append("total", new Document("$sum", "$count"))));
+            for (Document total : mongoTemplate.getCollection(VOTES).aggregate(pipeline)) {
+                mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(total.getString("_id"))),
+                        new Update().set(kind.field(), ((Number) total.get("total")).intValue()), Review.class);
+            }
+        });
+
+        // Only after the totals are written, so an inline $inc never lands before an absolute set
+        striped.removeIf(key -> !active.contains(key) && !dirty.contains(key));
+    }
+
+    private void ensureIndex() {
+        if (indexEnsured) return;
+        mongoTemplate.indexOps(VOTES).ensureIndex(new Index().on("reviewId", Sort.Direction.ASC).on("kind", Sort.Direction.ASC));
+        indexEnsured = true;
+    }
+
+    // 64-bit voter fingerprint; collisions need ~4 billion voters on one review to become likely
+    private static long hash(String userId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(userId.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.cafefinder.app.service;
 
 import com.cafefinder.app.model.User;
 import com.cafefinder.app.repo.UserRepo;
+import com.cafefinder.app.util.TtlCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -14,6 +16,13 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     UserRepo userRepository;
 
+    private final TtlCache<String, UserDetailsImpl> cache;
+
+    public UserDetailsServiceImpl(@Value("${cafefinder.auth.userCacheSize:10000}") int cacheSize,
+                                  @Value("${cafefinder.auth.userCacheTtlMs:300000}") long cacheTtlMs) {
+        this.cache = new TtlCache<>(cacheSize, cacheTtlMs);
+    }
+
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -22,4 +31,20 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         return UserDetailsImpl.build(user);
     }
+
+    // Used on every authenticated request; login keeps going through loadUserByUsername
+    // so password checks always see the stored hash
+    public UserDetailsImpl loadCachedUser(String username) throws UsernameNotFoundException {
+        UserDetailsImpl cached = cache.get(username);
+        if (cached != null) return cached;
+
+        UserDetailsImpl userDetails = (UserDetailsImpl) loadUserByUsername(username);
+        cache.put(username, userDetails);
+        return userDetails;
+    }
+
+    // Call whenever a user's roles or account state change
+    public void evictUser(String username) {
+        cache.invalidate(username);
+    }
 }
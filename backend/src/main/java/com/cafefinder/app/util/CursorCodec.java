@@ -0,0 +1,28 @@
+package com.cafefinder.app.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+// Opaque pagination cursors: the last row's sort keys, base64url encoded
+public final class CursorCodec {
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {}
+
+    public static String encode(List<String> keys) {
+        String raw = String.join(SEPARATOR, keys);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Throws IllegalArgumentException when the cursor was not produced by encode
+    public static List<String> decode(String cursor, int minKeys) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        List<String> keys = Arrays.asList(raw.split("\\|", -1));
+        if (keys.size() < minKeys) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return keys;
+    }
+}
@@ -3,6 +3,7 @@ package com.cafefinder.app.util;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,6 +23,25 @@ public class JwtUtils {
     @Value("${cafefinder.app.jwtExpirationMs:86400000}")
     private int jwtExpirationMs;
 
+    @Value("${cafefinder.app.jwtCacheSize:10000}")
+    private int tokenCacheSize;
+
+    @Value("${cafefinder.app.jwtCacheTtlMs:300000}")
+    private long tokenCacheTtlMs;
+
+    // Decoding the secret and building the parser are done once instead of per request.
+    // Built lazily so a misconfigured secret fails the first auth call, not startup.
+    private volatile Key signingKey;
+    private volatile JwtParser parser;
+
+    // Verified token -> subject; a hit skips the signature check until the token's own expiry
+    private TtlCache<String, String> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        verifiedTokens = new TtlCache<>(tokenCacheSize, tokenCacheTtlMs);
+    }
+
     public String generateJwtToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
         return generateTokenFromUsername(userPrincipal.getUsername());
@@ -37,18 +57,47 @@ public class JwtUtils {
     }
 
     private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        Key k = signingKey;
+        if (k == null) {
+            synchronized (this) {
+                if (signingKey == null) {
+                    signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+                }
+                k = signingKey;
+            }
+        }
+        return k;
+    }
+
+    private JwtParser parser() {
+        JwtParser p = parser;
+        if (p == null) {
+            p = Jwts.parserBuilder().setSigningKey(key()).build();
+            parser = p;
+        }
+        return p;
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return parser().parseClaimsJws(token).getBody().getSubject();
     }
 
     public boolean validateJwtToken(String authToken) {
+        return getValidatedUsername(authToken) != null;
+    }
+
+    // Validates the token and returns its subject with a single parse, or null when invalid
+    public String getValidatedUsername(String authToken) {
+        String cached = verifiedTokens.get(authToken);
+        if (cached != null) return cached;
+
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
+            Claims claims = parser().parseClaimsJws(authToken).getBody();
+            String username = claims.getSubject();
+            if (username == null) return null;
+            long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+            verifiedTokens.put(authToken, username, expiresAt);
+            return username;
         } catch (MalformedJwtException e) {
             System.err.println("Invalid JWT token: " + e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -57,7 +106,9 @@ public class JwtUtils {
             System.err.println("JWT token is unsupported: " + e.getMessage());
         } catch (IllegalArgumentException e) {
             System.err.println("JWT claims string is empty: " + e.getMessage());
+        } catch (JwtException e) {
+            System.err.println("Invalid JWT signature: " + e.getMessage());
         }
-        return false;
+        return null;
     }
 }
@@ -1,48 +1,76 @@
 package com.cafefinder.app.web;
 
-import com.cafefinder.app.model.Review;
-import com.cafefinder.app.repo.ReviewRepo;
+import com.cafefinder.app.config.IndexVerifier;
+import com.cafefinder.app.model.Cafe;
+import com.cafefinder.app.model.User;
+import com.cafefinder.app.repo.UserRepo;
+import com.cafefinder.app.service.CafeImportService;
+import com.cafefinder.app.service.CafeService;
+import com.cafefinder.app.service.PlacesIngestionService;
+import com.cafefinder.app.service.ReviewModerationService;
+import com.cafefinder.app.service.RatingRecomputeJob;
 import com.cafefinder.app.service.UserDetailsImpl;
+import com.cafefinder.app.service.UserDetailsServiceImpl;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
-import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/admin")
 public class AdminController {
 
-    private final ReviewRepo reviewRepo;
-
-    public AdminController(ReviewRepo reviewRepo) {
-        this.reviewRepo = reviewRepo;
+    private final RatingRecomputeJob ratingRecomputeJob;
+    private final UserRepo userRepo;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final PlacesIngestionService placesIngestion;
+    private final CafeImportService cafeImport;
+    private final ReviewModerationService moderationService;
+    private final IndexVerifier indexVerifier;
+    private final int maxModerationBatch;
+
+    public AdminController(RatingRecomputeJob ratingRecomputeJob,
+                           UserRepo userRepo, UserDetailsServiceImpl userDetailsService,
+                           PlacesIngestionService placesIngestion, CafeImportService cafeImport,
+                           ReviewModerationService moderationService, IndexVerifier indexVerifier,
+                           @Value("${cafefinder.moderation.maxBatch:500}") int maxModerationBatch) {
+        this.ratingRecomputeJob = ratingRecomputeJob;
+        this.userRepo = userRepo;
+        this.userDetailsService = userDetailsService;
+        this.placesIngestion = placesIngestion;
+        this.cafeImport = cafeImport;
+        this.moderationService = moderationService;
+        this.indexVerifier = indexVerifier;
+        this.maxModerationBatch = maxModerationBatch;
     }
 
-    // Get all pending reviews for admin approval
+    // Pending reviews, oldest first; follow X-Next-Cursor for the next page
     @GetMapping("/reviews/pending")
     // @PreAuthorize("hasRole('ADMIN')") // Temporarily disabled for testing
-    public ResponseEntity<List<Review>> getPendingReviews() {
-        List<Review> pendingReviews = reviewRepo.findByStatus("PENDING");
-        return ResponseEntity.ok(pendingReviews);
+    public ResponseEntity<?> getPendingReviews(@RequestParam(value = "size", defaultValue = "50") int size,
+                                               @RequestParam(value = "cursor", required = false) String cursor) {
+        return getAllReviews(ReviewModerationService.PENDING, size, cursor);
     }
 
-    // Get all reviews (pending, approved, rejected) for admin dashboard
+    // Reviews by status (pending, approved, rejected, or ALL) for admin dashboard, one page at a time
     @GetMapping("/reviews")
     // @PreAuthorize("hasRole('ADMIN')") // Temporarily disabled for testing
-    public ResponseEntity<List<Review>> getAllReviews(@RequestParam(value = "status", defaultValue = "ALL") String status) {
-        List<Review> reviews;
-        if ("ALL".equals(status)) {
-            reviews = reviewRepo.findAll();
-        } else {
-            reviews = reviewRepo.findByStatus(status);
+    public ResponseEntity<?> getAllReviews(@RequestParam(value = "status", defaultValue = "ALL") String status,
+                                           @RequestParam(value = "size", defaultValue = "50") int size,
+                                           @RequestParam(value = "cursor", required = false) String cursor) {
+        try {
+            return CafeController.pageResponse(moderationService.queue(status, clampPageSize(size), cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
         }
-        return ResponseEntity.ok(reviews);
     }
 
     // Approve or reject a review
@@ -53,27 +81,17 @@ public class AdminController {
             @Valid @RequestBody ReviewModerationRequest request,
             Authentication authentication) {
         try {
-            // Temporarily use a default admin ID since auth is disabled
-            String adminId = "admin-temp-id";
-            if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl) {
-                UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-                adminId = userDetails.getId();
-            }
-
-            Optional<Review> reviewOpt = reviewRepo.findById(reviewId);
-            if (!reviewOpt.isPresent()) {
+            Map<String, Object> result = moderationService.moderate(List.of(new ReviewModerationService.Decision(
+                    reviewId, request.getStatus(), request.getAdminNotes())), adminId(authentication));
+            if (!((List<?>) result.get("notFound")).isEmpty()) {
                 return ResponseEntity.badRequest().body("Review not found");
             }
-
-            Review review = reviewOpt.get();
-            
-            // Update review status
-            review.setStatus(request.getStatus());
-            review.setAdminId(adminId);
-            review.setAdminNotes(request.getAdminNotes());
-            review.setReviewedAt(Instant.now());
-
-            reviewRepo.save(review);
+            if (!((List<?>) result.get("conflicts")).isEmpty()) {
+                return ResponseEntity.status(409).body("Review was moderated by someone else in the meantime");
+            }
+            if (!((List<?>) result.get("failed")).isEmpty()) {
+                return ResponseEntity.status(500).body("Error processing review");
+            }
 
             return ResponseEntity.ok().body(Map.of(
                 "message", "Review " + request.getStatus().toLowerCase() + " successfully",
@@ -85,23 +103,134 @@ public class AdminController {
         }
     }
 
+    // Approve or reject many reviews at once: one bulk write for the reviews, then one rating
+    // update per affected cafe. Returns counts and the ids that did not exist.
+    @PostMapping("/reviews/moderate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> moderateReviews(@RequestBody List<BulkModerationItem> items,
+                                             Authentication authentication) {
+        if (items == null || items.isEmpty()) {
+            return ResponseEntity.badRequest().body("No reviews to moderate");
+        }
+        if (items.size() > maxModerationBatch) {
+            return ResponseEntity.badRequest().body("At most " + maxModerationBatch + " reviews per request");
+        }
+
+        List<ReviewModerationService.Decision> decisions = new ArrayList<>(items.size());
+        for (BulkModerationItem item : items) {
+            if (item.getReviewId() == null || item.getReviewId().isBlank()) {
+                return ResponseEntity.badRequest().body("Each item needs a reviewId");
+            }
+            if (!ReviewModerationService.STATUSES.contains(item.getStatus())) {
+                return ResponseEntity.badRequest().body("Invalid status for review " + item.getReviewId());
+            }
+            decisions.add(new ReviewModerationService.Decision(item.getReviewId(), item.getStatus(), item.getAdminNotes()));
+        }
+
+        try {
+            return ResponseEntity.ok(moderationService.moderate(decisions, adminId(authentication)));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Error processing reviews: " + e.getMessage());
+        }
+    }
+
+    // Recompute every cafe's ratings from approved reviews; resumes an interrupted run unless restart=true
+    @PostMapping("/ratings/recompute")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> recomputeRatings(
+            @RequestParam(value = "restart", defaultValue = "false") boolean restart) {
+        if (!ratingRecomputeJob.start(restart)) {
+            return ResponseEntity.status(409).body(ratingRecomputeJob.status());
+        }
+        return ResponseEntity.accepted().body(ratingRecomputeJob.status());
+    }
+
+    // Progress of the current or last recompute run
+    @GetMapping("/ratings/recompute")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getRecomputeStatus() {
+        return ResponseEntity.ok(ratingRecomputeJob.status());
+    }
+
+    // Bulk upsert cafes keyed on placeId, or name + address when there is no place id
+    @PostMapping("/cafes/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importCafes(@RequestBody List<Cafe> cafes) {
+        if (cafes == null || cafes.isEmpty()) {
+            return ResponseEntity.badRequest().body("No cafes to import");
+        }
+        for (Cafe cafe : cafes) {
+            if (cafe.getPlaceId() == null && (cafe.getName() == null || cafe.getName().isBlank())) {
+                return ResponseEntity.badRequest().body("Each cafe needs a placeId or a name");
+            }
+        }
+        return ResponseEntity.ok(cafeImport.importCafes(cafes));
+    }
+
+    // Import every cafe in a metro area from Google Places (grid of nearby searches); returns the run report
+    @PostMapping("/places/ingest")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> ingestPlaces(@RequestParam("city") String city,
+                                          @RequestParam(value = "radiusKm", defaultValue = "20") double radiusKm,
+                                          @RequestParam(value = "cellKm", defaultValue = "5") double cellKm) {
+        try {
+            return ResponseEntity.ok(placesIngestion.ingestCity(city, radiusKm, cellKm));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(503).body("Import interrupted");
+        }
+    }
+
+    // Replace a user's roles; the cached principal is evicted so the change applies on the next request
+    @PutMapping("/users/{username}/roles")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> updateUserRoles(@PathVariable("username") String username,
+                                             @RequestBody Set<String> roles) {
+        if (roles == null || roles.isEmpty()) {
+            return ResponseEntity.badRequest().body("At least one role is required");
+        }
+
+        Optional<User> userOpt = userRepo.findByUsername(username);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        User user = userOpt.get();
+        user.setRoles(roles);
+        userRepo.save(user);
+        userDetailsService.evictUser(username);
+        return ResponseEntity.ok(Map.of("username", username, "roles", roles));
+    }
+
+    // Declared index creation results and the plan of every repository query; collectionScans
+    // lists the queries with no usable index
+    @GetMapping("/indexes")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getIndexReport() {
+        return ResponseEntity.ok(indexVerifier.report());
+    }
+
     // Get admin dashboard stats
     @GetMapping("/stats")
     // @PreAuthorize("hasRole('ADMIN')") // Temporarily disabled for testing
     public ResponseEntity<Map<String, Object>> getAdminStats() {
-        long totalReviews = reviewRepo.count();
-        long pendingReviews = reviewRepo.countByStatus("PENDING");
-        long approvedReviews = reviewRepo.countByStatus("APPROVED");
-        long rejectedReviews = reviewRepo.countByStatus("REJECTED");
+        return ResponseEntity.ok(moderationService.stats());
+    }
 
-        Map<String, Object> stats = Map.of(
-            "totalReviews", totalReviews,
-            "pendingReviews", pendingReviews,
-            "approvedReviews", approvedReviews,
-            "rejectedReviews", rejectedReviews
-        );
+    // Temporarily use a default admin ID since auth is disabled
+    private static String adminId(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl userDetails) {
+            return userDetails.getId();
+        }
+        return "admin-temp-id";
+    }
 
-        return ResponseEntity.ok(stats);
+    static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, CafeService.MAX_PAGE_SIZE));
     }
 
     // DTO for review moderation
@@ -115,4 +244,12 @@ public class AdminController {
         public String getAdminNotes() { return adminNotes; }
         public void setAdminNotes(String adminNotes) { this.adminNotes = adminNotes; }
     }
+
+    // One entry of a bulk moderation request
+    public static class BulkModerationItem extends ReviewModerationRequest {
+        private String reviewId;
+
+        public String getReviewId() { return reviewId; }
+        public void setReviewId(String reviewId) { this.reviewId = reviewId; }
+    }
 }
@@ -2,30 +2,41 @@ package com.cafefinder.app.web;
 
 import com.cafefinder.app.model.BusyEntry;
 import com.cafefinder.app.repo.BusyRepo;
-import com.cafefinder.app.repo.CafeRepo;
+import com.cafefinder.app.service.BusyIngestor;
+import com.cafefinder.app.service.BusyService;
+import com.cafefinder.app.service.CrowdBroadcaster;
 import com.cafefinder.app.service.UserDetailsImpl;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/busy")
 public class BusyController {
     private final BusyRepo repo;
-    
-    @Autowired
-    private CafeRepo cafeRepo;
+    private final BusyService busyService;
+    private final CrowdBroadcaster broadcaster;
+    private final BusyIngestor busyIngestor;
 
-    public BusyController(BusyRepo repo){ this.repo = repo; }
+    public BusyController(BusyRepo repo, BusyService busyService, CrowdBroadcaster broadcaster,
+                          BusyIngestor busyIngestor){
+        this.repo = repo;
+        this.busyService = busyService;
+        this.broadcaster = broadcaster;
+        this.busyIngestor = busyIngestor;
+    }
 
     @GetMapping("/public/cafe/{cafeId}")
     public List<BusyEntry> getBusyHistory(@PathVariable String cafeId, 
@@ -36,39 +47,51 @@ public class BusyController {
 
     @GetMapping("/public/cafe/{cafeId}/current")
     public ResponseEntity<Map<String, Object>> getCurrentStatus(@PathVariable String cafeId) {
-        // Get most recent entry within last 2 hours
+        // Most recent report within last 2 hours
         Instant twoHoursAgo = Instant.now().minus(2, ChronoUnit.HOURS);
-        List<BusyEntry> recent = repo.findByCafeIdAndTimestampAfterOrderByTimestampDesc(cafeId, twoHoursAgo);
-        
-        if (recent.isEmpty()) {
-            return ResponseEntity.ok(Map.of(
-                "status", "unknown",
-                "crowdLevel", 0,
-                "waitTime", null,
-                "lastUpdated", null
-            ));
-        }
-
-        BusyEntry latest = recent.get(0);
-        return ResponseEntity.ok(Map.of(
-            "status", getCrowdStatus(latest.getCrowdLevel()),
-            "crowdLevel", latest.getCrowdLevel(),
-            "waitTime", latest.getWaitMins(),
-            "lastUpdated", latest.getTimestamp()
-        ));
+        return ResponseEntity.ok(busyService.currentStatus(cafeId, twoHoursAgo));
     }
 
     @GetMapping("/public/cafe/{cafeId}/hourly-trends")
     public Map<Integer, Double> getHourlyTrends(@PathVariable String cafeId, 
                                               @RequestParam(defaultValue = "7") int days) {
         Instant since = Instant.now().minus(days, ChronoUnit.DAYS);
-        List<BusyEntry> entries = repo.findByCafeIdAndTimestampAfterOrderByTimestampDesc(cafeId, since);
-        
-        return entries.stream()
-                .collect(Collectors.groupingBy(
-                    entry -> LocalDateTime.ofInstant(entry.getTimestamp(), ZoneOffset.UTC).getHour(),
-                    Collectors.averagingDouble(BusyEntry::getCrowdLevel)
-                ));
+        return busyService.hourlyTrends(cafeId, since);
+    }
+
+    // Server-sent "crowd" events for up to MAX_CAFE_IDS cafes or a map viewport, replacing polling of /current
+    @GetMapping("/public/stream")
+    // The broadcaster writes the stream itself (non-blocking), so this only answers bad requests
+    public void streamCrowdLevels(@RequestParam(required = false) List<String> cafeIds,
+                                  @RequestParam(required = false) Double minLat,
+                                  @RequestParam(required = false) Double minLng,
+                                  @RequestParam(required = false) Double maxLat,
+                                  @RequestParam(required = false) Double maxLng,
+                                  HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (cafeIds != null && !cafeIds.isEmpty()) {
+            Set<String> ids = new LinkedHashSet<>(cafeIds);
+            if (ids.size() > CrowdBroadcaster.MAX_CAFE_IDS) {
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                return;
+            }
+            Instant twoHoursAgo = Instant.now().minus(2, ChronoUnit.HOURS);
+            Map<String, Map<String, Object>> snapshot = new LinkedHashMap<>();
+            for (String id : ids) {
+                snapshot.put(id, busyService.currentStatus(id, twoHoursAgo));
+            }
+            broadcaster.subscribeToCafes(request, response, ids, snapshot);
+            return;
+        }
+
+        if (minLat == null || minLng == null || maxLat == null || maxLng == null) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        if (minLat > maxLat) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        broadcaster.subscribeToViewport(request, response, minLat, minLng, maxLat, maxLng);
     }
 
     @PostMapping
@@ -76,8 +99,7 @@ public class BusyController {
     public ResponseEntity<BusyEntry> reportBusyStatus(@RequestBody BusyEntry busyEntry, Authentication auth) {
         UserDetailsImpl userDetails = (UserDetailsImpl) auth.getPrincipal();
         
-        // Validate cafe exists
-        if (!cafeRepo.existsById(busyEntry.getCafeId())) {
+        if (busyEntry.getCafeId() == null || busyEntry.getCafeId().isBlank()) {
             return ResponseEntity.badRequest().build();
         }
         
@@ -88,12 +110,13 @@ public class BusyController {
             return ResponseEntity.badRequest().build();
         }
         
-        BusyEntry saved = repo.save(busyEntry);
-        
-        // Update cafe current status
-        updateCafeCurrentStatus(busyEntry.getCafeId(), saved);
+        // Written in the next ingest batch, which also drops reports for unknown cafes
+        // and updates the cafe's current status
+        if (!busyIngestor.enqueue(busyEntry)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
         
-        return ResponseEntity.ok(saved);
+        return ResponseEntity.accepted().body(busyEntry);
     }
 
     @PostMapping("/cafe/{cafeId}/quick-report")
@@ -111,21 +134,6 @@ public class BusyController {
         return reportBusyStatus(entry, auth);
     }
 
-    private void updateCafeCurrentStatus(String cafeId, BusyEntry latestEntry) {
-        cafeRepo.findById(cafeId).ifPresent(cafe -> {
-            cafe.setCurrentStatus(getCrowdStatus(latestEntry.getCrowdLevel()));
-            cafe.setCurrentWaitTime(latestEntry.getWaitMins());
-            cafeRepo.save(cafe);
-        });
-    }
-
-    private String getCrowdStatus(int crowdLevel) {
-        if (crowdLevel <= 30) return "quiet";
-        else if (crowdLevel <= 60) return "moderate";
-        else if (crowdLevel <= 85) return "busy";
-        else return "very_busy";
-    }
-
     // Legacy endpoint for backward compatibility
     @GetMapping("/by-cafe/{cafeId}")
     public List<BusyEntry> byCafe(@PathVariable String cafeId){
@@ -1,28 +1,44 @@
 package com.cafefinder.app.web;
 
+import com.cafefinder.app.dto.CafeSummary;
+import com.cafefinder.app.dto.CursorPage;
 import com.cafefinder.app.model.Cafe;
 import com.cafefinder.app.repo.CafeRepo;
+import com.cafefinder.app.service.CafeCache;
 import com.cafefinder.app.service.CafeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/cafes")
 public class CafeController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String NDJSON = "application/x-ndjson";
+
     private final CafeRepo repo;
     private final CafeService service;
+    private final ObjectMapper objectMapper;
+    private final CafeCache cafeCache;
 
-    public CafeController(CafeRepo repo, CafeService service){
+    public CafeController(CafeRepo repo, CafeService service, ObjectMapper objectMapper, CafeCache cafeCache){
         this.repo = repo;
         this.service = service;
+        this.objectMapper = objectMapper;
+        this.cafeCache = cafeCache;
     }
 
     @GetMapping("/public/search")
-    public List<Cafe> search(
+    public ResponseEntity<?> search(
             @RequestParam(value="q", required=false) String q,
             @RequestParam(value="city", required=false) String city,
             @RequestParam(value="lat", required=false) Double lat,
@@ -32,28 +48,91 @@ public class CafeController {
             @RequestParam(value="seating", required=false) Boolean seating,
             @RequestParam(value="workFriendly", required=false) Boolean workFriendly,
             @RequestParam(value="priceRange", required=false) String priceRange,
-            @RequestParam(value="minRating", required=false) Double minRating
+            @RequestParam(value="minRating", required=false) Double minRating,
+            @RequestParam(value="mode", defaultValue=CafeService.MODE_CONTAINS) String mode,
+            @RequestParam(value="size", defaultValue="50") int size,
+            @RequestParam(value="cursor", required=false) String cursor
     ){
-        return service.searchWithFilters(q, city, lat, lng, radius, wifi, seating, workFriendly, priceRange, minRating);
+        try {
+            return pageResponse(service.searchWithFilters(q, city, lat, lng, radius, wifi, seating, workFriendly,
+                    priceRange, minRating, mode, size, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+    }
+
+    // Full result set as newline-delimited JSON, read from a Mongo cursor one document at a time
+    @GetMapping(value="/public/search/stream", produces=NDJSON)
+    public ResponseEntity<StreamingResponseBody> searchStream(
+            @RequestParam(value="q", required=false) String q,
+            @RequestParam(value="city", required=false) String city,
+            @RequestParam(value="lat", required=false) Double lat,
+            @RequestParam(value="lng", required=false) Double lng,
+            @RequestParam(value="radius", required=false, defaultValue="10") Double radius,
+            @RequestParam(value="wifi", required=false) Boolean wifi,
+            @RequestParam(value="seating", required=false) Boolean seating,
+            @RequestParam(value="workFriendly", required=false) Boolean workFriendly,
+            @RequestParam(value="priceRange", required=false) String priceRange,
+            @RequestParam(value="minRating", required=false) Double minRating,
+            @RequestParam(value="mode", defaultValue=CafeService.MODE_CONTAINS) String mode
+    ){
+        StreamingResponseBody body = out -> {
+            try (Stream<CafeSummary> cafes = service.streamWithFilters(q, city, lat, lng, radius, wifi, seating, workFriendly,
+                    priceRange, minRating, mode)) {
+                Iterator<CafeSummary> it = cafes.iterator();
+                while (it.hasNext()) {
+                    out.write(objectMapper.writeValueAsBytes(it.next()));
+                    out.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
     }
 
     @GetMapping("/public/nearby")
-    public List<Cafe> findNearby(
+    public ResponseEntity<?> findNearby(
             @RequestParam("lat") double lat,
             @RequestParam("lng") double lng,
-            @RequestParam(value="radius", defaultValue="5") double radius
+            @RequestParam(value="radius", defaultValue="5") double radius,
+            @RequestParam(value="size", defaultValue="50") int size,
+            @RequestParam(value="cursor", required=false) String cursor
     ) {
-        return service.findNearby(lat, lng, radius);
+        try {
+            return pageResponse(service.findNearby(lat, lng, radius, size, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
     }
 
     @GetMapping("/public/popular")
-    public List<Cafe> getPopular(@RequestParam(value="limit", defaultValue="10") int limit) {
-        return service.getPopularCafes(limit);
+    public ResponseEntity<?> getPopular(@RequestParam(value="limit", defaultValue="10") int limit,
+                                        @RequestParam(value="city", required=false) String city,
+                                        @RequestParam(value="cursor", required=false) String cursor) {
+        try {
+            return pageResponse(service.getPopularCafes(limit, cursor, city));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+    }
+
+    // Body stays a plain list; the cursor for the next page travels in a header
+    static <T> ResponseEntity<List<T>> pageResponse(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder.body(page.getItems());
+    }
+
+    // Total number of cafes; list endpoints only return one page, so they can't be used to count
+    @GetMapping("/public/count")
+    public Map<String, Long> count() {
+        return Map.of("count", repo.count());
     }
 
     @GetMapping("/public/{id}")
     public ResponseEntity<Cafe> getPublic(@PathVariable String id){
-        return repo.findById(id)
+        return cafeCache.findById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -70,6 +149,8 @@ public class CafeController {
         return repo.findById(id)
                 .map(existingCafe -> {
                     cafe.setId(id);
+                    // Rating totals are server-managed and never part of the request body
+                    cafe.setRatingTotals(existingCafe.getRatingTotals());
                     return ResponseEntity.ok(service.updateCafe(cafe));
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -80,7 +161,7 @@ public class CafeController {
     public ResponseEntity<?> delete(@PathVariable String id) {
         return repo.findById(id)
                 .map(cafe -> {
-                    repo.delete(cafe);
+                    service.deleteCafe(cafe);
                     return ResponseEntity.ok().build();
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -88,7 +169,7 @@ public class CafeController {
 
     @GetMapping("/{id}/menu")
     public ResponseEntity<?> getMenu(@PathVariable String id) {
-        return repo.findById(id)
+        return cafeCache.findById(id)
                 .map(cafe -> ResponseEntity.ok(cafe.getMenuItems()))
                 .orElse(ResponseEntity.notFound().build());
     }
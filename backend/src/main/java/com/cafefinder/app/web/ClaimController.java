@@ -6,6 +6,7 @@ import com.cafefinder.app.model.Cafe;
 import com.cafefinder.app.model.ClaimRequest;
 import com.cafefinder.app.repo.CafeRepo;
 import com.cafefinder.app.repo.ClaimRequestRepo;
+import com.cafefinder.app.service.CafeCache;
 import com.cafefinder.app.service.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -28,6 +29,9 @@ public class ClaimController {
     
     @Autowired
     private CafeRepo cafeRepo;
+
+    @Autowired
+    private CafeCache cafeCache;
     
     // Submit a claim request for a business
     @PostMapping("/request")
@@ -72,6 +76,7 @@ public class ClaimController {
             // Update cafe claim status to pending
             cafe.setClaimStatus("PENDING");
             cafeRepo.save(cafe);
+            cafeCache.invalidate(cafe.getId());
             
             return ResponseEntity.ok().body("Claim request submitted successfully. We will review your request within 3-5 business days.");
             
@@ -148,6 +153,7 @@ public class ClaimController {
                 }
                 
                 cafeRepo.save(cafe);
+                cafeCache.invalidate(cafe.getId());
             }
             
             return ResponseEntity.ok().body("Claim request reviewed successfully");
@@ -160,7 +166,7 @@ public class ClaimController {
     // Check if a cafe can be claimed
     @GetMapping("/can-claim/{cafeId}")
     public ResponseEntity<?> canClaimCafe(@PathVariable String cafeId) {
-        Optional<Cafe> cafeOpt = cafeRepo.findById(cafeId);
+        Optional<Cafe> cafeOpt = cafeCache.findById(cafeId);
         if (!cafeOpt.isPresent()) {
             return ResponseEntity.badRequest().body("Cafe not found");
         }
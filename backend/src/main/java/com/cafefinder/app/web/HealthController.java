@@ -1,14 +1,27 @@
 package com.cafefinder.app.web;
 
+import com.cafefinder.app.config.StartupWarmup;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
 public class HealthController {
+    private final StartupWarmup warmup;
+
+    public HealthController(StartupWarmup warmup) {
+        this.warmup = warmup;
+    }
+
+    // Always 200 so platform liveness checks don't restart a warming instance;
+    // use /actuator/health/readiness to gate traffic
     @GetMapping("/api/health")
-    public Map<String,String> health(){
-        return Map.of("status","ok");
+    public Map<String,Object> health(){
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", warmup.hasFailures() ? "degraded" : warmup.isComplete() ? "ok" : "warming");
+        body.put("warmup", warmup.progress());
+        return body;
     }
     
     @GetMapping("/")
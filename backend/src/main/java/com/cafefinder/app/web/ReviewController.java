@@ -3,8 +3,14 @@ package com.cafefinder.app.web;
 import com.cafefinder.app.model.Review;
 import com.cafefinder.app.repo.ReviewRepo;
 import com.cafefinder.app.service.CafeService;
+import com.cafefinder.app.service.ReviewVoteService;
 import com.cafefinder.app.service.UserDetailsImpl;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -15,11 +21,22 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/reviews")
 public class ReviewController {
+    // What an author may change on their own review; votes, moderation and ownership are left alone
+    private static final List<String> EDITABLE_FIELDS = List.of("overallRating", "coffeeRating", "tasteRating",
+            "ambianceRating", "serviceRating", "valueRating", "text", "tasteNotes", "photos", "wifi", "seating",
+            "workFriendly", "bathrooms", "petFriendly", "parking", "priceRange", "waitTime");
+
     private final ReviewRepo repo;
     
     @Autowired
     private CafeService cafeService;
 
+    @Autowired
+    private ReviewVoteService voteService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     public ReviewController(ReviewRepo repo){
         this.repo = repo;
     }
@@ -55,7 +72,7 @@ public class ReviewController {
         Review savedReview = repo.save(review);
         
         // Update cafe ratings
-        cafeService.updateCafeRatings(review.getCafeId());
+        cafeService.applyReviewDelta(null, savedReview);
         
         return ResponseEntity.ok(savedReview);
     }
@@ -64,20 +81,40 @@ public class ReviewController {
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<Review> updateReview(@PathVariable("id") String id, @RequestBody Review review, Authentication auth) {
         UserDetailsImpl userDetails = (UserDetailsImpl) auth.getPrincipal();
-        
-        return repo.findById(id)
-                .filter(existingReview -> existingReview.getUserId().equals(userDetails.getId()))
-                .map(existingReview -> {
-                    review.setId(id);
-                    review.setUserId(userDetails.getId());
-                    review.setUsername(userDetails.getUsername());
-                    review.setCreatedAt(existingReview.getCreatedAt());
-                    review.setUpdatedAt(Instant.now());
-                    Review updated = repo.save(review);
-                    cafeService.updateCafeRatings(review.getCafeId());
-                    return ResponseEntity.ok(updated);
-                })
-                .orElse(ResponseEntity.notFound().build());
+        Instant now = Instant.now();
+
+        // $set only the editable fields instead of saving the whole document, so a concurrent like or
+        // vote fold isn't overwritten. The review as it was comes back from the same atomic update,
+        // which keeps the rating delta exact.
+        Document edit = new Document();
+        mongoTemplate.getConverter().write(review, edit);
+        Update update = new Update().set("updatedAt", now);
+        for (String field : EDITABLE_FIELDS) {
+            update.set(field, edit.get(field));
+        }
+        Review existingReview = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(id).and("userId").is(userDetails.getId())), update, Review.class);
+        if (existingReview == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // The edited review as stored; moderation stays with the admins, so an edit can't approve
+        // its own review or pull an approved one out of the cafe's rating totals
+        review.setId(id);
+        review.setCafeId(existingReview.getCafeId());
+        review.setUserId(existingReview.getUserId());
+        review.setUsername(existingReview.getUsername());
+        review.setCreatedAt(existingReview.getCreatedAt());
+        review.setUpdatedAt(now);
+        review.setVerified(existingReview.isVerified());
+        review.setLikes(existingReview.getLikes());
+        review.setHelpfulVotes(existingReview.getHelpfulVotes());
+        review.setStatus(existingReview.getStatus());
+        review.setAdminId(existingReview.getAdminId());
+        review.setAdminNotes(existingReview.getAdminNotes());
+        review.setReviewedAt(existingReview.getReviewedAt());
+        cafeService.applyReviewDelta(existingReview, review);
+        return ResponseEntity.ok(review);
     }
 
     @DeleteMapping("/{id}")
@@ -92,9 +129,9 @@ public class ReviewController {
                             .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN"));
                     
                     if (isOwner || isAdmin) {
-                        String cafeId = review.getCafeId();
                         repo.delete(review);
-                        cafeService.updateCafeRatings(cafeId);
+                        voteService.deleteVotes(review.getId());
+                        cafeService.applyReviewDelta(review, null);
                         return ResponseEntity.ok().build();
                     } else {
                         return ResponseEntity.status(403).build();
@@ -105,24 +142,27 @@ public class ReviewController {
 
     @PostMapping("/{id}/like")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Review> likeReview(@PathVariable("id") String id) {
-        return repo.findById(id)
-                .map(review -> {
-                    review.setLikes(review.getLikes() + 1);
-                    return ResponseEntity.ok(repo.save(review));
-                })
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<?> likeReview(@PathVariable("id") String id, Authentication auth) {
+        return vote(id, auth, ReviewVoteService.Kind.LIKE, "You already liked this review");
     }
 
     @PostMapping("/{id}/helpful")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Review> markHelpful(@PathVariable("id") String id) {
-        return repo.findById(id)
-                .map(review -> {
-                    review.setHelpfulVotes(review.getHelpfulVotes() + 1);
-                    return ResponseEntity.ok(repo.save(review));
-                })
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<?> markHelpful(@PathVariable("id") String id, Authentication auth) {
+        return vote(id, auth, ReviewVoteService.Kind.HELPFUL, "You already marked this review helpful");
+    }
+
+    // One vote per user, counted with an atomic $inc instead of saving the whole review
+    private ResponseEntity<?> vote(String id, Authentication auth, ReviewVoteService.Kind kind, String duplicateMessage) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) auth.getPrincipal();
+        ReviewVoteService.VoteResult result = voteService.vote(id, userDetails.getId(), kind);
+        if (result.review() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!result.counted()) {
+            return ResponseEntity.status(409).body(duplicateMessage);
+        }
+        return ResponseEntity.ok(result.review());
     }
 
     // Legacy endpoint for backward compatibility
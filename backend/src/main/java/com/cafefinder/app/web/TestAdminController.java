@@ -1,22 +1,24 @@
 package com.cafefinder.app.web;
 
+import com.cafefinder.app.dto.CursorPage;
 import com.cafefinder.app.model.Review;
 import com.cafefinder.app.repo.ReviewRepo;
+import com.cafefinder.app.service.ReviewModerationService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/test-admin")
 public class TestAdminController {
 
     private final ReviewRepo reviewRepo;
+    private final ReviewModerationService moderationService;
 
-    public TestAdminController(ReviewRepo reviewRepo) {
+    public TestAdminController(ReviewRepo reviewRepo, ReviewModerationService moderationService) {
         this.reviewRepo = reviewRepo;
+        this.moderationService = moderationService;
     }
 
     // Simple test endpoint
@@ -36,26 +38,11 @@ public class TestAdminController {
         }
     }
 
-    // Get admin dashboard stats
+    // Get admin dashboard stats (one $group over the status index)
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getAdminStats() {
         try {
-            long totalReviews = reviewRepo.count();
-            
-            // For now, use simple counts since new methods might not work yet
-            List<Review> allReviews = reviewRepo.findAll();
-            long pendingReviews = allReviews.stream().filter(r -> "PENDING".equals(r.getStatus())).count();
-            long approvedReviews = allReviews.stream().filter(r -> "APPROVED".equals(r.getStatus())).count();
-            long rejectedReviews = allReviews.stream().filter(r -> "REJECTED".equals(r.getStatus())).count();
-
-            Map<String, Object> stats = Map.of(
-                "totalReviews", totalReviews,
-                "pendingReviews", pendingReviews,
-                "approvedReviews", approvedReviews,
-                "rejectedReviews", rejectedReviews
-            );
-
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(moderationService.stats());
         } catch (Exception e) {
             System.err.println("Error in getAdminStats: " + e.getMessage());
             e.printStackTrace();
@@ -63,42 +50,18 @@ public class TestAdminController {
         }
     }
 
-    // Get all reviews by status - test version
+    // Get reviews by status - test version, one page at a time (next page cursor in X-Next-Cursor)
     @GetMapping("/reviews")
-    public ResponseEntity<?> getAllReviews(@RequestParam(value = "status", defaultValue = "ALL") String status) {
+    public ResponseEntity<?> getAllReviews(@RequestParam(value = "status", defaultValue = "ALL") String status,
+                                           @RequestParam(value = "size", defaultValue = "50") int size,
+                                           @RequestParam(value = "cursor", required = false) String cursor) {
         try {
             System.out.println("=== Starting getAllReviews with status: " + status);
-            
-            // First test if repository is working
-            System.out.println("Testing repository connection...");
-            long count = reviewRepo.count();
-            System.out.println("Total review count in database: " + count);
-            
-            if (count == 0) {
-                System.out.println("No reviews found in database");
-                return ResponseEntity.ok(List.of());
-            }
-            
-            List<Review> reviews;
-            if ("ALL".equals(status)) {
-                System.out.println("Fetching all reviews...");
-                reviews = reviewRepo.findAll();
-            } else {
-                System.out.println("Fetching reviews with status: " + status);
-                reviews = reviewRepo.findByStatus(status);
-            }
-            
-            System.out.println("Found " + reviews.size() + " reviews with status: " + status);
-            
-            if (reviews.isEmpty()) {
-                System.out.println("No reviews found for status: " + status);
-                return ResponseEntity.ok(List.of());
-            }
-            
-            // Return the actual reviews
-            System.out.println("Returning " + reviews.size() + " reviews");
-            return ResponseEntity.ok(reviews);
-            
+            CursorPage<Review> page = moderationService.queue(status, AdminController.clampPageSize(size), cursor);
+            System.out.println("Returning " + page.getItems().size() + " reviews with status: " + status);
+            return CafeController.pageResponse(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
         } catch (Exception e) {
             System.err.println("ERROR in getAllReviews: " + e.getClass().getName() + ": " + e.getMessage());
             e.printStackTrace();
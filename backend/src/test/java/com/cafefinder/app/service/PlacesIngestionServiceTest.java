@@ -0,0 +1,174 @@
+package com.cafefinder.app.service;
+
+import com.cafefinder.app.model.Cafe;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Runs the grid import against a local stub of the Places API (google.places.api.base.url points
+// at it). Every cell returns the same two pages of places, so the cells overlap completely.
+// The import service is a stand-in keyed on placeId, like the real upsert.
+class PlacesIngestionServiceTest {
+    private static final int FIRST_PAGE = 20;
+    private static final int SECOND_PAGE = 5;
+    // radiusKm 1 with cellKm 1 is a 2x2 grid
+    private static final int CELLS = 4;
+
+    @TempDir
+    Path cacheDir;
+
+    private HttpServer server;
+    private final AtomicInteger nearbyCalls = new AtomicInteger();
+    private final AtomicInteger pageTokenCalls = new AtomicInteger();
+    private final AtomicInteger geocodeCalls = new AtomicInteger();
+    private final Set<String> storedPlaceIds = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/maps/api/place/nearbysearch/json", this::nearbySearch);
+        server.createContext("/maps/api/geocode/json", exchange -> {
+            geocodeCalls.incrementAndGet();
+            respond(exchange, "{\"status\":\"OK\",\"results\":[{\"geometry\":{\"location\":{\"lat\":33.749,\"lng\":-84.388}}}]}");
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void followsNextPageTokenAndDedupesOverlappingCells() throws InterruptedException {
+        Map<String, Object> report = ingestion(cache(false)).ingestCity("Atlanta", 1, 1);
+
+        assertEquals(1, geocodeCalls.get());
+        assertEquals(CELLS * 2, nearbyCalls.get());
+        assertEquals(CELLS, pageTokenCalls.get());
+        assertEquals(CELLS * 2, report.get("requests"));
+        assertEquals(0, report.get("cacheHits"));
+        assertEquals(FIRST_PAGE + SECOND_PAGE, report.get("uniquePlaces"));
+        assertEquals(FIRST_PAGE + SECOND_PAGE, report.get("inserted"));
+        assertEquals(0, report.get("updated"));
+    }
+
+    @Test
+    void reingestIsServedFromCacheAndUpdatesInPlace() throws InterruptedException {
+        ingestion(cache(false)).ingestCity("Atlanta", 1, 1);
+        int callsAfterFirstRun = nearbyCalls.get();
+
+        Map<String, Object> report = ingestion(cache(false)).ingestCity("Atlanta", 1, 1);
+
+        assertEquals(callsAfterFirstRun, nearbyCalls.get());
+        assertEquals(1, geocodeCalls.get());
+        assertEquals(0, report.get("requests"));
+        assertEquals(CELLS * 2, report.get("cacheHits"));
+        assertEquals(0, report.get("inserted"));
+        assertEquals(FIRST_PAGE + SECOND_PAGE, report.get("updated"));
+        assertEquals(FIRST_PAGE + SECOND_PAGE, storedPlaceIds.size());
+    }
+
+    @Test
+    void replayOnlyServesRecordedResponsesAndNeverCallsOut() throws InterruptedException {
+        ingestion(cache(false)).ingestCity("Atlanta", 1, 1);
+        int callsAfterRecording = nearbyCalls.get();
+
+        Map<String, Object> replayed = ingestion(cache(true)).ingestCity("Atlanta", 1, 1);
+        assertEquals(callsAfterRecording, nearbyCalls.get());
+        assertEquals(CELLS * 2, replayed.get("cacheHits"));
+        assertEquals(FIRST_PAGE + SECOND_PAGE, replayed.get("uniquePlaces"));
+
+        // A different area has nothing recorded: misses come back empty instead of calling out
+        Map<String, Object> missed = ingestion(cache(true)).ingestArea("elsewhere", 40.0, -75.0, 1, 1);
+        assertEquals(callsAfterRecording, nearbyCalls.get());
+        assertEquals(0, missed.get("cacheHits"));
+        assertEquals(0, missed.get("uniquePlaces"));
+        assertThrows(IllegalArgumentException.class, () -> ingestion(cache(true)).ingestCity("Boston", 1, 1));
+        assertEquals(1, geocodeCalls.get());
+    }
+
+    private void nearbySearch(HttpExchange exchange) throws IOException {
+        nearbyCalls.incrementAndGet();
+        String query = exchange.getRequestURI().getQuery();
+        if (query.contains("pagetoken=")) {
+            pageTokenCalls.incrementAndGet();
+            respond(exchange, page("second", SECOND_PAGE, null));
+        } else {
+            // Tokens are per search, like the real API's
+            String location = query.replaceAll(".*location=([^&]*).*", "$1");
+            respond(exchange, page("first", FIRST_PAGE, "token-" + location));
+        }
+    }
+
+    private static String page(String prefix, int count, String nextPageToken) {
+        List<String> places = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            places.add("{\"place_id\":\"" + prefix + "-" + i + "\",\"name\":\"Cafe " + prefix + " " + i + "\","
+                    + "\"vicinity\":\"" + i + " Peachtree St, Atlanta\","
+                    + "\"geometry\":{\"location\":{\"lat\":33.75,\"lng\":-84.39}}}");
+        }
+        return "{\"status\":\"OK\",\"results\":[" + String.join(",", places) + "]"
+                + (nextPageToken != null ? ",\"next_page_token\":\"" + nextPageToken + "\"" : "") + "}";
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private PlacesResponseCache cache(boolean replayOnly) {
+        long day = 86_400_000L;
+        return new PlacesResponseCache(true, replayOnly, cacheDir.toString(), day, day, day);
+    }
+
+    private PlacesIngestionService ingestion(PlacesResponseCache cache) {
+        ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        GooglePlacesService places = new GooglePlacesService(new RestTemplate(), cache, objectMapper);
+        ReflectionTestUtils.setField(places, "baseUrl", "http://127.0.0.1:" + server.getAddress().getPort() + "/maps/api/place");
+        ReflectionTestUtils.setField(places, "apiKey", cache.isReplayOnly() ? "" : "test-key");
+
+        CafeImportService importService = mock(CafeImportService.class);
+        when(importService.upsertBatch(anyList())).thenAnswer(invocation -> {
+            List<Cafe> cafes = invocation.getArgument(0);
+            int inserted = 0;
+            for (Cafe cafe : cafes) {
+                if (storedPlaceIds.add(cafe.getPlaceId())) inserted++;
+            }
+            return new CafeImportService.Result(inserted, cafes.size() - inserted);
+        });
+
+        // No page-token delay, a rate limit the test never hits and no cell splitting
+        return new PlacesIngestionService(places, importService, mock(CafeCache.class), mock(PopularLeaderboard.class),
+                4, 1000, 100, 0, 0, 200);
+    }
+}
@@ -0,0 +1,203 @@
+package com.cafefinder.app.bench;
+
+import com.cafefinder.app.dto.GooglePlacesResponse.Place;
+import com.cafefinder.app.model.BusyEntry;
+import com.cafefinder.app.model.Cafe;
+import com.cafefinder.app.model.MenuItem;
+import com.cafefinder.app.model.Review;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+// Synthetic cafes, Places results, reviews and busy reports in the shape SeedDataHelper produces,
+// spread over the Atlanta metro area. Everything is derived from the seed, so runs are comparable.
+//
+// Also usable on its own to load a dev database:
+//   java -cp target/benchmarks.jar com.cafefinder.app.bench.SyntheticData 10000 > cafes.json
+//   curl -X POST -H 'Content-Type: application/json' -d @cafes.json .../api/admin/cafes/import
+public class SyntheticData {
+    public static final double CENTER_LAT = 33.749;
+    public static final double CENTER_LNG = -84.388;
+    // About 55 km each way, roughly the metro area
+    public static final double SPREAD_DEGREES = 0.5;
+
+    public static final String[] NAME_PREFIXES = {"Brash", "Chrome", "Momo", "Finca", "Hodgepodge", "Taproom",
+            "Muchacho", "Condesa", "Docent", "Revelator", "Dancing Goats", "Spiller", "Octane", "Banjo"};
+    private static final String[] NAME_SUFFIXES = {"Coffee", "Cafe", "Coffee House", "Roasters", "Espresso Bar",
+            "Trading Co.", "Coffee Lab"};
+    private static final String[] STREETS = {"Marietta St NW", "Edgewood Ave SE", "Piedmont Ave NE", "Boulevard NE",
+            "Moreland Ave SE", "Howell Mill Rd NW", "Flat Shoals Ave SE", "Peachtree St NE", "Ponce de Leon Ave NE"};
+    public static final String[] CITIES = {"Atlanta", "Decatur", "Sandy Springs", "Marietta", "Smyrna", "East Point"};
+    private static final String[] PRICE_RANGES = {"$", "$$", "$$", "$$$", "$$$$"};
+    private static final String[] PARKING = {"street", "free_lot", "paid_lot", "paid_garage", "none"};
+    private static final String[] DAYS = {"Sunday", "Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday"};
+    private static final List<String> TAGS = List.of("coffee", "cafe", "local", "roastery", "cozy", "wifi", "outdoor",
+            "community", "pour_over", "espresso");
+
+    public static List<Cafe> createCafes(int count, long seed) {
+        Random random = new Random(seed);
+        List<Cafe> cafes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Cafe cafe = new Cafe();
+            cafe.setId(objectId(i));
+            cafe.setPlaceId("synthetic-" + i);
+            cafe.setName(pick(random, NAME_PREFIXES) + " " + pick(random, NAME_SUFFIXES) + " #" + i);
+            cafe.setDescription("Synthetic cafe " + i);
+            cafe.setAddress((100 + random.nextInt(9900)) + " " + pick(random, STREETS));
+            cafe.setCity(pick(random, CITIES));
+            cafe.setState("GA");
+            cafe.setZipCode(String.valueOf(30301 + random.nextInt(60)));
+            cafe.setLatitude(CENTER_LAT + (random.nextDouble() * 2 - 1) * SPREAD_DEGREES);
+            cafe.setLongitude(CENTER_LNG + (random.nextDouble() * 2 - 1) * SPREAD_DEGREES);
+            cafe.setPriceRange(pick(random, PRICE_RANGES));
+
+            cafe.setWifi(random.nextInt(10) < 8);
+            cafe.setSeating(random.nextInt(10) < 9);
+            cafe.setWorkFriendly(random.nextBoolean());
+            cafe.setBathrooms(random.nextInt(10) < 8);
+            cafe.setPetFriendly(random.nextInt(10) < 3);
+            cafe.setWheelchairAccessible(true);
+            cafe.setParking(pick(random, PARKING));
+            cafe.setAlternativeMilks(List.of("oat", "almond", "soy"));
+            cafe.setCoffeeTypes(List.of("espresso", "pour_over", "drip"));
+            cafe.setDietaryOptions(List.of("vegan"));
+            cafe.setTags(List.of(TAGS.get(random.nextInt(TAGS.size())), TAGS.get(random.nextInt(TAGS.size()))));
+            cafe.setMenuItems(List.of(
+                    new MenuItem("Espresso", "Rich, bold shot", "coffee", 3.00),
+                    new MenuItem("Latte", "Smooth espresso with steamed milk", "coffee", 4.50)));
+
+            Map<Integer, String> hours = new HashMap<>();
+            int open = 6 + random.nextInt(3);
+            int close = 17 + random.nextInt(5);
+            for (int day = 0; day <= 6; day++) {
+                hours.put(day, open + ":00-" + close + ":00");
+            }
+            cafe.setHours(hours);
+
+            cafe.setAvgRating(Math.round((2.5 + random.nextDouble() * 2.5) * 10) / 10.0);
+            cafe.setReviewsCount(random.nextInt(500));
+            cafe.setCurrentStatus("unknown");
+            cafe.setClaimStatus("UNCLAIMED");
+            cafes.add(cafe);
+        }
+        return cafes;
+    }
+
+    // Nearby/text search results as Google returns them, including weekday_text opening hours
+    public static List<Place> createPlaces(int count, long seed) {
+        Random random = new Random(seed);
+        List<Place> places = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Place place = new Place();
+            place.setPlace_id("ChIJsynthetic" + i);
+            place.setName(pick(random, NAME_PREFIXES) + " " + pick(random, NAME_SUFFIXES));
+            place.setRating(Math.round((3 + random.nextDouble() * 2) * 10) / 10.0);
+            place.setUser_ratings_total(random.nextInt(2000));
+            place.setFormatted_address((100 + random.nextInt(9900)) + " " + pick(random, STREETS) + ", "
+                    + pick(random, CITIES) + " GA 303" + (10 + random.nextInt(50)) + ", USA");
+            place.setFormatted_phone_number("(404) 555-" + (1000 + random.nextInt(9000)));
+            place.setPrice_level(String.valueOf(random.nextInt(4)));
+
+            Place.Geometry.Location location = new Place.Geometry.Location();
+            location.setLat(CENTER_LAT + (random.nextDouble() * 2 - 1) * SPREAD_DEGREES);
+            location.setLng(CENTER_LNG + (random.nextDouble() * 2 - 1) * SPREAD_DEGREES);
+            Place.Geometry geometry = new Place.Geometry();
+            geometry.setLocation(location);
+            place.setGeometry(geometry);
+
+            Place.OpeningHours openingHours = new Place.OpeningHours();
+            openingHours.setWeekday_text(createWeekdayText(random));
+            place.setOpening_hours(openingHours);
+            places.add(place);
+        }
+        return places;
+    }
+
+    // "Monday: 7:00 AM – 6:00 PM" lines for the seven days
+    public static List<String> createWeekdayText(Random random) {
+        List<String> lines = new ArrayList<>(7);
+        int open = 6 + random.nextInt(4);
+        int close = 4 + random.nextInt(7);
+        for (String day : DAYS) {
+            lines.add(day + ": " + open + ":" + (random.nextBoolean() ? "00" : "30") + " AM – "
+                    + close + ":00 PM");
+        }
+        return lines;
+    }
+
+    // Approved reviews spread over the given cafes, every optional dimension sometimes missing
+    public static List<Review> createReviews(List<Cafe> cafes, int count, long seed) {
+        Random random = new Random(seed);
+        Instant now = Instant.now();
+        List<Review> reviews = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Review review = new Review();
+            review.setId(objectId(1_000_000_000L + i));
+            review.setCafeId(cafes.get(random.nextInt(cafes.size())).getId());
+            review.setUserId("user-" + random.nextInt(10_000));
+            review.setUsername("reviewer" + random.nextInt(10_000));
+            review.setOverallRating(1 + random.nextInt(5));
+            review.setCoffeeRating(optionalRating(random));
+            review.setTasteRating(optionalRating(random));
+            review.setAmbianceRating(optionalRating(random));
+            review.setServiceRating(optionalRating(random));
+            review.setValueRating(optionalRating(random));
+            review.setText("Synthetic review " + i);
+            review.setStatus("APPROVED");
+            review.setCreatedAt(now.minus(random.nextInt(365 * 24 * 60), ChronoUnit.MINUTES));
+            reviews.add(review);
+        }
+        return reviews;
+    }
+
+    // Crowd reports over the last `days` days; busier around the morning and lunch peaks
+    public static List<BusyEntry> createBusyEntries(List<Cafe> cafes, int count, int days, long seed) {
+        Random random = new Random(seed);
+        Instant now = Instant.now();
+        List<BusyEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Instant timestamp = now.minus(random.nextInt(days * 24 * 60), ChronoUnit.MINUTES);
+            int hour = timestamp.atZone(ZoneOffset.UTC).getHour();
+            int base = (hour >= 12 && hour <= 14) || (hour >= 16 && hour <= 18) ? 60 : 25;
+
+            BusyEntry entry = new BusyEntry();
+            entry.setCafeId(cafes.get(random.nextInt(cafes.size())).getId());
+            entry.setTimestamp(timestamp);
+            entry.setCrowdLevel(Math.min(100, base + random.nextInt(40)));
+            entry.setWaitMins(random.nextInt(4) == 0 ? random.nextInt(20) : null);
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+
+        List<Cafe> cafes = createCafes(count, seed);
+        // Let the database assign ids; placeId is the import key
+        cafes.forEach(cafe -> cafe.setId(null));
+
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.writeValue(System.out, cafes);
+    }
+
+    private static Integer optionalRating(Random random) {
+        return random.nextInt(4) == 0 ? null : 1 + random.nextInt(5);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    // Stable 24-hex-digit ids, so generated documents look like the real ones
+    private static String objectId(long n) {
+        return String.format("%024x", n);
+    }
+}
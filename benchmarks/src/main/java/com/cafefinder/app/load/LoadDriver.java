@@ -0,0 +1,188 @@
+package com.cafefinder.app.load;
+
+import com.cafefinder.app.load.LoadReport.EndpointResult;
+import com.cafefinder.app.load.LoadReport.PhaseResult;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Closed-loop HTTP load: `concurrency` workers each send a request, wait for the full response and
+// send the next one. Latencies are therefore service times at that concurrency, not the latency an
+// open stream of users at a fixed arrival rate would see.
+//
+// Allocation is read from the per-thread allocation counters of this JVM. The app runs in-process,
+// so everything allocated outside the load generator's own threads (the "load-" workers and the
+// HttpClient threads) is attributed to the server: Tomcat, Spring, the Mongo driver and background jobs.
+public class LoadDriver {
+    private static final String CLIENT_THREAD_PREFIX = "load-";
+
+    // How one endpoint's request is built; `token` is the worker's JWT for the authenticated writes
+    public interface RequestFactory {
+        HttpRequest create(Random random, String token);
+    }
+
+    public record Endpoint(String name, int weight, RequestFactory factory) {}
+
+    private final HttpClient client;
+    private final List<String> tokens;
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // One token per worker, so writes are spread over as many users as there are workers
+    public LoadDriver(List<String> tokens) {
+        this.tokens = tokens;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newCachedThreadPool(task -> {
+                    Thread thread = new Thread(task, CLIENT_THREAD_PREFIX + "http-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+    }
+
+    // Runs the endpoints, picked at random by weight, for warmup + duration and reports the measured part
+    public PhaseResult run(String phase, List<Endpoint> endpoints, Duration warmup, Duration duration, long seed)
+            throws InterruptedException {
+        int totalWeight = endpoints.stream().mapToInt(Endpoint::weight).sum();
+        Map<String, Recorder> recorders = new LinkedHashMap<>();
+        Map<String, LongAdder> errors = new HashMap<>();
+        for (Endpoint endpoint : endpoints) {
+            recorders.put(endpoint.name(), new Recorder(3));
+            errors.put(endpoint.name(), new LongAdder());
+        }
+
+        Phase state = new Phase();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            Random random = new Random(seed + i);
+            Thread worker = new Thread(() -> {
+                while (!state.stopped) {
+                    Endpoint endpoint = pick(endpoints, random.nextInt(totalWeight));
+                    long started = System.nanoTime();
+                    boolean ok = send(endpoint.factory().create(random, token));
+                    long micros = (System.nanoTime() - started) / 1000;
+                    if (!ok) {
+                        errors.get(endpoint.name()).increment();
+                    } else {
+                        recorders.get(endpoint.name()).recordValue(micros);
+                    }
+                }
+            }, CLIENT_THREAD_PREFIX + "worker-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+
+        Thread.sleep(warmup.toMillis());
+        // Drop what the warmup recorded, then measure
+        recorders.values().forEach(Recorder::reset);
+        errors.values().forEach(LongAdder::reset);
+        Map<Long, Long> allocatedBefore = serverAllocatedBytes();
+        long started = System.nanoTime();
+
+        Thread.sleep(duration.toMillis());
+
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        recorders.forEach((name, recorder) -> histograms.put(name, recorder.getIntervalHistogram()));
+        Map<String, Long> errorCounts = new HashMap<>();
+        errors.forEach((name, count) -> errorCounts.put(name, count.sum()));
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long allocated = allocatedSince(allocatedBefore);
+
+        state.stopped = true;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        List<EndpointResult> results = new ArrayList<>();
+        long requests = 0;
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            long count = histogram.getTotalCount();
+            requests += count;
+            results.add(new EndpointResult(entry.getKey(), count, errorCounts.get(entry.getKey()), round(count / seconds),
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getMaxValue())));
+        }
+        return new PhaseResult(phase, requests, round(requests / seconds),
+                requests > 0 ? allocated / requests : 0, Math.round(allocated / seconds), results);
+    }
+
+    private boolean send(HttpRequest request) {
+        try {
+            // The body is read in full so the server does all of its serialization work
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() >= 200 && response.statusCode() < 300;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Bytes allocated so far by every live thread that isn't part of the load generator
+    private Map<Long, Long> serverAllocatedBytes() {
+        long[] ids = threads.getAllThreadIds();
+        ThreadInfo[] infos = threads.getThreadInfo(ids);
+        long[] allocated = threads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> byThread = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            // Threads that ended in the meantime have no info and no counter
+            if (infos[i] == null || allocated[i] < 0) continue;
+            String name = infos[i].getThreadName();
+            if (name.startsWith(CLIENT_THREAD_PREFIX) || name.startsWith("HttpClient-")) continue;
+            byThread.put(ids[i], allocated[i]);
+        }
+        return byThread;
+    }
+
+    // Threads that ended during the phase are missed; Tomcat's request threads are pooled, so that's little
+    private long allocatedSince(Map<Long, Long> before) {
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : serverAllocatedBytes().entrySet()) {
+            total += entry.getValue() - before.getOrDefault(entry.getKey(), 0L);
+        }
+        return total;
+    }
+
+    private static Endpoint pick(List<Endpoint> endpoints, int ticket) {
+        for (Endpoint endpoint : endpoints) {
+            ticket -= endpoint.weight();
+            if (ticket < 0) return endpoint;
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static class Phase {
+        volatile boolean stopped;
+    }
+}
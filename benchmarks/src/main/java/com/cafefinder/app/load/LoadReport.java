@@ -0,0 +1,111 @@
+package com.cafefinder.app.load;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Results of a load-test run as JSON, and the comparison against a baseline saved from an earlier run.
+// A baseline only means something for the same data size, concurrency and machine, so those are saved too.
+public class LoadReport {
+
+    public record EndpointResult(String name, long requests, long errors, double throughput,
+                                 double p50Ms, double p90Ms, double p99Ms, double maxMs) {}
+
+    public record PhaseResult(String name, long requests, double throughput, long allocatedBytesPerRequest,
+                              long allocatedBytesPerSecond, List<EndpointResult> endpoints) {}
+
+    public record Setup(int cafes, long reviews, long busyEntries, int concurrency, long warmupSeconds,
+                        long durationSeconds, String javaVersion, int processors) {}
+
+    public record RunResult(Instant finishedAt, Setup setup, List<PhaseResult> phases) {}
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    public static void write(RunResult result, Path file) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        MAPPER.writeValue(file.toFile(), result);
+    }
+
+    public static RunResult read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), RunResult.class);
+    }
+
+    public static void print(PhaseResult phase) {
+        System.out.printf(Locale.ROOT, "%n%s: %.1f req/s, %s allocated per request, %s/s%n", phase.name(),
+                phase.throughput(), bytes(phase.allocatedBytesPerRequest()), bytes(phase.allocatedBytesPerSecond()));
+        System.out.printf(Locale.ROOT, "  %-16s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (EndpointResult endpoint : phase.endpoints()) {
+            System.out.printf(Locale.ROOT, "  %-16s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", endpoint.name(),
+                    endpoint.requests(), endpoint.errors(), endpoint.throughput(),
+                    endpoint.p50Ms(), endpoint.p90Ms(), endpoint.p99Ms(), endpoint.maxMs());
+        }
+    }
+
+    // Prints current vs. baseline for every phase and endpoint both runs have, and returns how many
+    // numbers got worse by more than `tolerance` (0.2 = 20%): p99, throughput or allocation per request
+    public static int compare(RunResult current, RunResult baseline, double tolerance) {
+        if (!current.setup().equals(baseline.setup())) {
+            System.err.println("Baseline was recorded with a different setup, comparing anyway: "
+                    + baseline.setup() + " vs " + current.setup());
+        }
+        Map<String, PhaseResult> baselinePhases = byName(baseline.phases(), PhaseResult::name);
+
+        int regressions = 0;
+        System.out.printf(Locale.ROOT, "%nCompared with baseline from %s (tolerance %.0f%%)%n",
+                baseline.finishedAt(), tolerance * 100);
+        for (PhaseResult phase : current.phases()) {
+            PhaseResult before = baselinePhases.get(phase.name());
+            if (before == null) {
+                System.out.println("  " + phase.name() + ": not in baseline");
+                continue;
+            }
+            regressions += line(phase.name() + " alloc/req", before.allocatedBytesPerRequest(),
+                    phase.allocatedBytesPerRequest(), true, tolerance);
+
+            Map<String, EndpointResult> beforeEndpoints = byName(before.endpoints(), EndpointResult::name);
+            for (EndpointResult endpoint : phase.endpoints()) {
+                EndpointResult previous = beforeEndpoints.get(endpoint.name());
+                if (previous == null) continue;
+                String label = phase.name() + "/" + endpoint.name();
+                regressions += line(label + " p99", previous.p99Ms(), endpoint.p99Ms(), true, tolerance);
+                regressions += line(label + " req/s", previous.throughput(), endpoint.throughput(), false, tolerance);
+            }
+        }
+        return regressions;
+    }
+
+    // One comparison row; returns 1 when it's a regression
+    private static int line(String label, double before, double now, boolean lowerIsBetter, double tolerance) {
+        double change = before == 0 ? 0 : (now - before) / before;
+        boolean regression = lowerIsBetter ? change > tolerance : change < -tolerance;
+        System.out.printf(Locale.ROOT, "  %-36s %12.2f -> %12.2f  %+7.1f%%%s%n",
+                label, before, now, change * 100, regression ? "  REGRESSION" : "");
+        return regression ? 1 : 0;
+    }
+
+    private static <T> Map<String, T> byName(List<T> items, Function<T, String> name) {
+        return items.stream().collect(Collectors.toMap(name, Function.identity(), (first, second) -> first));
+    }
+
+    private static String bytes(long bytes) {
+        if (bytes >= 1 << 20) return String.format(Locale.ROOT, "%.1f MB", bytes / (double) (1 << 20));
+        if (bytes >= 1 << 10) return String.format(Locale.ROOT, "%.1f KB", bytes / (double) (1 << 10));
+        return bytes + " B";
+    }
+}
@@ -0,0 +1,78 @@
+package com.cafefinder.app.load;
+
+import com.cafefinder.app.bench.SyntheticData;
+import com.cafefinder.app.model.BusyEntry;
+import com.cafefinder.app.model.Cafe;
+import com.cafefinder.app.model.Review;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Bulk-loads synthetic cafes, reviews and busy reports straight into Mongo before the app boots.
+// Only the raw documents are written: the app's migrations (GeoJSON location, hourly busy buckets)
+// and IndexVerifier then run over the full data set on startup, the same way they would in production.
+public class LoadSeeder {
+    private static final int BATCH = 10_000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public LoadSeeder(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Returns the ids of all cafes, seeded now or left over from an earlier run against the same database
+    public List<String> seed(int cafeCount, long reviewCount, long busyCount, long seed) {
+        if (mongoTemplate.exists(new Query(), Cafe.class)) {
+            System.out.println("Database already has cafes, reusing it as is");
+            return cafeIds();
+        }
+
+        long started = System.currentTimeMillis();
+        List<Cafe> cafes = SyntheticData.createCafes(cafeCount, seed);
+        for (int from = 0; from < cafes.size(); from += BATCH) {
+            mongoTemplate.insert(cafes.subList(from, Math.min(from + BATCH, cafes.size())), Cafe.class);
+        }
+        System.out.println("Seeded " + cafes.size() + " cafes");
+
+        // Reviews and busy reports are generated one batch at a time; 50M documents don't fit in memory
+        long inserted = 0;
+        for (int batch = 0; inserted < reviewCount; batch++) {
+            List<Review> reviews = SyntheticData.createReviews(cafes, (int) Math.min(BATCH, reviewCount - inserted), seed + batch + 1);
+            reviews.forEach(review -> review.setId(null)); // generated ids restart every batch
+            mongoTemplate.insert(reviews, Review.class);
+            inserted += reviews.size();
+            progress("reviews", inserted, reviewCount);
+        }
+
+        inserted = 0;
+        for (int batch = 0; inserted < busyCount; batch++) {
+            List<BusyEntry> entries = SyntheticData.createBusyEntries(cafes, (int) Math.min(BATCH, busyCount - inserted), 30, -seed - batch - 1);
+            mongoTemplate.insert(entries, BusyEntry.class);
+            inserted += entries.size();
+            progress("busy reports", inserted, busyCount);
+        }
+
+        System.out.println("Seeding finished in " + (System.currentTimeMillis() - started) / 1000 + "s");
+        return cafes.stream().map(Cafe::getId).toList();
+    }
+
+    private List<String> cafeIds() {
+        Query query = new Query();
+        query.fields().include("_id");
+        List<String> ids = new ArrayList<>();
+        for (Cafe cafe : mongoTemplate.find(query, Cafe.class)) {
+            ids.add(cafe.getId());
+        }
+        return ids;
+    }
+
+    private static void progress(String what, long done, long total) {
+        // Roughly every 5%, without flooding the log on small runs
+        long step = Math.max(BATCH, total / 20);
+        if (done == total || done % step < BATCH) {
+            System.out.println("Seeded " + done + "/" + total + " " + what);
+        }
+    }
+}
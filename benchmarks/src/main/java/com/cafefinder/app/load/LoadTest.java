@@ -0,0 +1,248 @@
+package com.cafefinder.app.load;
+
+import com.cafefinder.app.Application;
+import com.cafefinder.app.bench.SyntheticData;
+import com.cafefinder.app.load.LoadDriver.Endpoint;
+import com.cafefinder.app.load.LoadReport.PhaseResult;
+import com.cafefinder.app.load.LoadReport.RunResult;
+import com.cafefinder.app.load.LoadReport.Setup;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+// End-to-end load test: seeds a Mongo instance (an embedded mongod unless --mongoUri is given), boots
+// the whole app in this JVM against it, then drives the public search, nearby, review and busy
+// endpoints one at a time and finally as a mix with authenticated writes. Prints p50/p90/p99,
+// throughput and allocation per phase, writes them to --out and compares with --baseline if present.
+//
+//   java -Xmx4g -cp target/benchmarks.jar com.cafefinder.app.load.LoadTest --scale=0.01
+//
+// Options (all --name=value): mongoUri, scale, cafes, reviews, busy, seed, concurrency, warmup and
+// duration (seconds per phase), phases (comma separated names), out, baseline, tolerance, and the
+// flag --writeBaseline to save this run as the new baseline.
+public class LoadTest {
+    // The full-size data set: 100k cafes, 5M reviews, 50M busy reports; --scale shrinks all three
+    private static final int CAFES = 100_000;
+    private static final long REVIEWS = 5_000_000;
+    private static final long BUSY_ENTRIES = 50_000_000;
+    private static final String DATABASE = "cafe_finder_load";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        double scale = Double.parseDouble(options.getOrDefault("scale", "1"));
+        int cafes = Integer.parseInt(options.getOrDefault("cafes", String.valueOf(Math.round(CAFES * scale))));
+        long reviews = Long.parseLong(options.getOrDefault("reviews", String.valueOf(Math.round(REVIEWS * scale))));
+        long busy = Long.parseLong(options.getOrDefault("busy", String.valueOf(Math.round(BUSY_ENTRIES * scale))));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "16"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+        Path out = Path.of(options.getOrDefault("out", "target/loadtest-results.json"));
+        Path baseline = Path.of(options.getOrDefault("baseline", "loadtest-baseline.json"));
+        double tolerance = Double.parseDouble(options.getOrDefault("tolerance", "0.2"));
+        Set<String> phases = options.containsKey("phases")
+                ? Set.of(options.get("phases").split(",")) : null;
+
+        TransitionWalker.ReachedState<RunningMongodProcess> mongod = null;
+        ConfigurableApplicationContext app = null;
+        int regressions = 0;
+        try {
+            String mongoUri = options.get("mongoUri");
+            if (mongoUri == null) {
+                System.out.println("Starting embedded mongod...");
+                mongod = Mongod.instance().start(Version.Main.V7_0);
+                ServerAddress address = mongod.current().getServerAddress();
+                mongoUri = "mongodb://" + address.getHost() + ":" + address.getPort() + "/" + DATABASE;
+            }
+
+            SimpleMongoClientDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(mongoUri);
+            List<String> cafeIds;
+            try {
+                cafeIds = new LoadSeeder(new MongoTemplate(factory)).seed(cafes, reviews, busy, seed);
+            } finally {
+                factory.destroy();
+            }
+
+            // Command-line arguments, so they win over application.properties
+            System.out.println("Booting the app...");
+            app = new SpringApplicationBuilder(Application.class)
+                    .run("--server.port=0", "--spring.data.mongodb.uri=" + mongoUri);
+            String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+
+            List<String> tokens = new ArrayList<>();
+            String runId = Long.toString(System.currentTimeMillis() % 1_000_000_000L, 36);
+            HttpClient setupClient = HttpClient.newHttpClient();
+            for (int i = 0; i < concurrency; i++) {
+                tokens.add(registerAndLogin(setupClient, baseUrl, "load" + runId + "w" + i));
+            }
+
+            LoadDriver driver = new LoadDriver(tokens);
+            List<Endpoint> endpoints = endpoints(baseUrl, cafeIds);
+            List<PhaseResult> results = new ArrayList<>();
+            // Each endpoint alone first, so its allocation can be told apart, then all of them mixed
+            for (Endpoint endpoint : endpoints) {
+                if (phases != null && !phases.contains(endpoint.name())) continue;
+                System.out.println("Running " + endpoint.name() + "...");
+                PhaseResult result = driver.run(endpoint.name(), List.of(endpoint), warmup, duration, seed);
+                LoadReport.print(result);
+                results.add(result);
+            }
+            if (phases == null || phases.contains("mixed")) {
+                System.out.println("Running mixed...");
+                PhaseResult result = driver.run("mixed", endpoints, warmup, duration, seed);
+                LoadReport.print(result);
+                results.add(result);
+            }
+
+            Setup setup = new Setup(cafes, reviews, busy, concurrency, warmup.toSeconds(), duration.toSeconds(),
+                    System.getProperty("java.version"), Runtime.getRuntime().availableProcessors());
+            RunResult run = new RunResult(Instant.now(), setup, results);
+            LoadReport.write(run, out);
+            System.out.println("\nResults written to " + out.toAbsolutePath());
+
+            if (Files.exists(baseline)) {
+                regressions = LoadReport.compare(run, LoadReport.read(baseline), tolerance);
+            } else {
+                System.out.println("No baseline at " + baseline.toAbsolutePath() + ", run with --writeBaseline to save one");
+            }
+            if (options.containsKey("writeBaseline")) {
+                LoadReport.write(run, baseline);
+                System.out.println("Baseline saved to " + baseline.toAbsolutePath());
+            }
+        } finally {
+            if (app != null) app.close();
+            if (mongod != null) mongod.close();
+        }
+
+        if (regressions > 0) {
+            System.err.println(regressions + " regressions against the baseline");
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    // What a busy client mostly does: browse and look at cafes, with one request in ten a write
+    private static List<Endpoint> endpoints(String baseUrl, List<String> cafeIds) {
+        return List.of(
+                new Endpoint("search", 15, (random, token) -> get(baseUrl + "/api/cafes/public/search?city="
+                        + encode(pick(random, SyntheticData.CITIES)) + "&wifi=true&size=20")),
+                new Endpoint("search-text", 10, (random, token) -> get(baseUrl + "/api/cafes/public/search?q="
+                        + encode(pick(random, SyntheticData.NAME_PREFIXES)) + "&size=20")),
+                new Endpoint("nearby", 20, (random, token) -> get(baseUrl + "/api/cafes/public/nearby?lat="
+                        + randomLat(random) + "&lng=" + randomLng(random) + "&radius=3&size=20")),
+                new Endpoint("reviews", 20, (random, token) -> get(baseUrl + "/api/reviews/public/cafe/"
+                        + pick(random, cafeIds))),
+                new Endpoint("busy-current", 15, (random, token) -> get(baseUrl + "/api/busy/public/cafe/"
+                        + pick(random, cafeIds) + "/current")),
+                new Endpoint("busy-trends", 5, (random, token) -> get(baseUrl + "/api/busy/public/cafe/"
+                        + pick(random, cafeIds) + "/hourly-trends?days=7")),
+                new Endpoint("busy-history", 5, (random, token) -> get(baseUrl + "/api/busy/public/cafe/"
+                        + pick(random, cafeIds) + "?hours=24")),
+                new Endpoint("busy-report", 8, (random, token) -> HttpRequest.newBuilder(URI.create(baseUrl
+                                + "/api/busy/cafe/" + pick(random, cafeIds) + "/quick-report?crowdLevel=" + random.nextInt(101)))
+                        .header("Authorization", "Bearer " + token)
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .timeout(Duration.ofSeconds(30))
+                        .build()),
+                new Endpoint("review-create", 2, (random, token) -> post(baseUrl + "/api/reviews", token, Map.of(
+                        "cafeId", pick(random, cafeIds),
+                        "overallRating", 1 + random.nextInt(5),
+                        "coffeeRating", 1 + random.nextInt(5),
+                        "text", "Load test review"))));
+    }
+
+    private static String registerAndLogin(HttpClient client, String baseUrl, String username)
+            throws IOException, InterruptedException {
+        Map<String, String> register = Map.of("username", username, "email", username + "@example.com",
+                "password", "loadtest123", "firstName", "Load", "lastName", "Test");
+        HttpResponse<String> registered = client.send(post(baseUrl + "/api/auth/register", null, register),
+                HttpResponse.BodyHandlers.ofString());
+        if (registered.statusCode() != 200) {
+            throw new IllegalStateException("Registering " + username + " failed: " + registered.body());
+        }
+
+        HttpResponse<String> login = client.send(post(baseUrl + "/api/auth/login", null,
+                Map.of("username", username, "password", "loadtest123")), HttpResponse.BodyHandlers.ofString());
+        JsonNode body = MAPPER.readTree(login.body());
+        if (login.statusCode() != 200 || !body.hasNonNull("token")) {
+            throw new IllegalStateException("Logging in " + username + " failed: " + login.body());
+        }
+        return body.get("token").asText();
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private static HttpRequest post(String url, String token, Map<String, ?> body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) builder.header("Authorization", "Bearer " + token);
+        try {
+            return builder.POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body))).build();
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + arg + ", options look like --name=value");
+            }
+            String[] parts = arg.substring(2).split("=", 2);
+            options.put(parts[0], parts.length > 1 ? parts[1] : "true");
+        }
+        System.out.println("Load test options: " + (options.isEmpty() ? "defaults" : options));
+        return options;
+    }
+
+    private static double randomLat(Random random) {
+        return SyntheticData.CENTER_LAT + (random.nextDouble() * 2 - 1) * SyntheticData.SPREAD_DEGREES;
+    }
+
+    private static double randomLng(Random random) {
+        return SyntheticData.CENTER_LNG + (random.nextDouble() * 2 - 1) * SyntheticData.SPREAD_DEGREES;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static <T> T pick(Random random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
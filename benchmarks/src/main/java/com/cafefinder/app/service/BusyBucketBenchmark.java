@@ -0,0 +1,51 @@
+package com.cafefinder.app.service;
+
+import com.cafefinder.app.bench.SyntheticData;
+import com.cafefinder.app.model.BusyEntry;
+import com.cafefinder.app.model.Cafe;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Hourly grouping of crowd reports. Reports are folded into (cafe, hour) buckets as they are
+// ingested, and getHourlyTrends groups those buckets by hour of day in Mongo; this measures the
+// app side of it, one ingest batch at a time.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BusyBucketBenchmark {
+    @Param({"100", "500", "5000"})
+    int batchSize;
+
+    @Param({"100", "10000"})
+    int cafeCount;
+
+    private BusyService busyService;
+    private List<BusyEntry> batch;
+
+    @Setup
+    public void setUp() {
+        // Grouping and update building don't touch the database
+        busyService = new BusyService(null);
+        List<Cafe> cafes = SyntheticData.createCafes(cafeCount, 42L);
+        batch = SyntheticData.createBusyEntries(cafes, batchSize, 7, 42L);
+    }
+
+    @Benchmark
+    public Map<String, List<BusyEntry>> groupByBucket() {
+        return BusyService.groupByBucket(batch);
+    }
+
+    @Benchmark
+    public void bucketUpdates(Blackhole blackhole) {
+        for (List<BusyEntry> bucket : BusyService.groupByBucket(batch).values()) {
+            blackhole.consume(busyService.bucketUpdate(bucket));
+        }
+    }
+}
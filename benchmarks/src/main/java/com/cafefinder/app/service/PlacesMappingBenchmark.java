@@ -0,0 +1,57 @@
+package com.cafefinder.app.service;
+
+import com.cafefinder.app.bench.SyntheticData;
+import com.cafefinder.app.dto.GooglePlacesResponse.Place;
+import com.cafefinder.app.model.Cafe;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Places result -> Cafe mapping, which runs for every page of a grid import, and the opening
+// hours parsing inside it. A nearby search page holds up to 20 places.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlacesMappingBenchmark {
+    @Param({"20", "1000"})
+    int placeCount;
+
+    private GooglePlacesService placesService;
+    private List<Place> places;
+    private List<String> weekdayLines;
+
+    @Setup
+    public void setUp() {
+        // Mapping never touches the HTTP client or the response cache
+        placesService = new GooglePlacesService(null, null, null);
+        places = SyntheticData.createPlaces(placeCount, 42L);
+        weekdayLines = new ArrayList<>();
+        for (Place place : places) weekdayLines.addAll(place.getOpening_hours().getWeekday_text());
+    }
+
+    @Benchmark
+    public List<Cafe> mapPlacesToCafes() {
+        return placesService.mapPlacesToCafes(places);
+    }
+
+    @Benchmark
+    public void parseTimeRange(Blackhole blackhole) {
+        for (String line : weekdayLines) {
+            blackhole.consume(placesService.parseTimeRange(line));
+        }
+    }
+
+    @Benchmark
+    public void convertTo24Hour(Blackhole blackhole) {
+        blackhole.consume(placesService.convertTo24Hour("7:30", "AM"));
+        blackhole.consume(placesService.convertTo24Hour("12:00", "PM"));
+        blackhole.consume(placesService.convertTo24Hour("9:00", "PM"));
+        blackhole.consume(placesService.convertTo24Hour("12:15", "AM"));
+    }
+}
@@ -0,0 +1,75 @@
+package com.cafefinder.app.service;
+
+import com.cafefinder.app.bench.SyntheticData;
+import com.cafefinder.app.model.Cafe;
+import com.cafefinder.app.model.Review;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Rating averaging for updateCafeRatings / the recompute job. The per-dimension sums and counts
+// are computed by a $group in Mongo; groupInMemory is the same work done in the app, for
+// comparison, and totalsUpdates is what the app does with each group result.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RatingTotalsBenchmark {
+    private static final int REVIEWS_PER_CAFE = 20;
+
+    // Same keys as CafeService.ratingAccumulators()
+    private static final Map<String, Function<Review, Integer>> DIMENSIONS = Map.of(
+            "overall", Review::getOverallRating,
+            "coffee", Review::getCoffeeRating,
+            "taste", Review::getTasteRating,
+            "ambiance", Review::getAmbianceRating,
+            "service", Review::getServiceRating,
+            "value", Review::getValueRating);
+
+    @Param({"1000", "10000"})
+    int cafeCount;
+
+    private List<Review> reviews;
+    private Map<String, Document> groupResults;
+
+    @Setup
+    public void setUp() {
+        List<Cafe> cafes = SyntheticData.createCafes(cafeCount, 42L);
+        reviews = SyntheticData.createReviews(cafes, cafeCount * REVIEWS_PER_CAFE, 42L);
+        groupResults = groupInMemory();
+    }
+
+    @Benchmark
+    public Map<String, Document> groupInMemory() {
+        Map<String, Document> byCafe = new HashMap<>();
+        for (Review review : reviews) {
+            Document group = byCafe.computeIfAbsent(review.getCafeId(), id -> {
+                Document empty = new Document();
+                DIMENSIONS.keySet().forEach(key -> empty.append(key + "Sum", 0L).append(key + "Count", 0L));
+                return empty;
+            });
+            DIMENSIONS.forEach((key, value) -> {
+                Integer rating = value.apply(review);
+                if (rating == null) return;
+                group.put(key + "Sum", group.getLong(key + "Sum") + rating);
+                group.put(key + "Count", group.getLong(key + "Count") + 1);
+            });
+        }
+        return byCafe;
+    }
+
+    @Benchmark
+    public void totalsUpdates(Blackhole blackhole) {
+        for (Document group : groupResults.values()) {
+            blackhole.consume(CafeService.totalsUpdate(group));
+        }
+    }
+}
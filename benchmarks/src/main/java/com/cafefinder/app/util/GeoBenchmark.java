@@ -0,0 +1,81 @@
+package com.cafefinder.app.util;
+
+import com.cafefinder.app.bench.SyntheticData;
+import com.cafefinder.app.model.Cafe;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Haversine distance and in-memory radius filtering over synthetic cafes. Radius search itself
+// runs in Mongo ($geoNear); this is the per-cafe cost of the distances the app still computes
+// (streamed search results, relevance pages) and of the radius filter that $geoNear replaced.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// A million synthetic cafes doesn't fit the default heap on smaller machines
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class GeoBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    int cafeCount;
+
+    @Param({"5", "25"})
+    double radiusKm;
+
+    private List<Cafe> cafes;
+
+    @Setup
+    public void setUp() {
+        cafes = SyntheticData.createCafes(cafeCount, 42L);
+    }
+
+    @Benchmark
+    public void distances(Blackhole blackhole) {
+        for (Cafe cafe : cafes) {
+            blackhole.consume(GeoUtils.distanceKm(SyntheticData.CENTER_LAT, SyntheticData.CENTER_LNG,
+                    cafe.getLatitude(), cafe.getLongitude()));
+        }
+    }
+
+    // Distance to every cafe, keep those inside the radius, closest first
+    @Benchmark
+    public List<Cafe> filterByRadius() {
+        List<Cafe> within = new ArrayList<>();
+        for (Cafe cafe : cafes) {
+            double distance = GeoUtils.distanceKm(SyntheticData.CENTER_LAT, SyntheticData.CENTER_LNG,
+                    cafe.getLatitude(), cafe.getLongitude());
+            if (distance <= radiusKm) {
+                cafe.setDistanceKm(distance);
+                within.add(cafe);
+            }
+        }
+        within.sort(Comparator.comparingDouble(Cafe::getDistanceKm));
+        return within;
+    }
+
+    // Same, with a lat/lng bounding box rejecting far cafes before the trigonometry
+    @Benchmark
+    public List<Cafe> filterByRadiusWithBoundingBox() {
+        double latDelta = radiusKm / GeoUtils.KM_PER_DEGREE_LAT;
+        double lngDelta = radiusKm / (GeoUtils.KM_PER_DEGREE_LAT * Math.cos(Math.toRadians(SyntheticData.CENTER_LAT)));
+
+        List<Cafe> within = new ArrayList<>();
+        for (Cafe cafe : cafes) {
+            if (Math.abs(cafe.getLatitude() - SyntheticData.CENTER_LAT) > latDelta
+                    || Math.abs(cafe.getLongitude() - SyntheticData.CENTER_LNG) > lngDelta) continue;
+            double distance = GeoUtils.distanceKm(SyntheticData.CENTER_LAT, SyntheticData.CENTER_LNG,
+                    cafe.getLatitude(), cafe.getLongitude());
+            if (distance <= radiusKm) {
+                cafe.setDistanceKm(distance);
+                within.add(cafe);
+            }
+        }
+        within.sort(Comparator.comparingDouble(Cafe::getDistanceKm));
+        return within;
+    }
+}
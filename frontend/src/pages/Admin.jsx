@@ -16,6 +16,7 @@ const Admin = () => {
   const [reviews, setReviews] = useState([])
   const [stats, setStats] = useState({})
   const [loading, setLoading] = useState(true)
+  const [nextCursor, setNextCursor] = useState(null)
   const [filter, setFilter] = useState('PENDING')
   const [selectedReview, setSelectedReview] = useState(null)
   const [moderationNote, setModerationNote] = useState('')
@@ -35,14 +36,19 @@ const Admin = () => {
     }
   }
 
-  const fetchReviews = async () => {
+  // Reviews are paged; the cursor for the next page comes back in the X-Next-Cursor header
+  const fetchReviews = async (cursor = null) => {
     try {
-      setLoading(true)
-      const response = await axios.get(`/api/test-admin/reviews?status=${filter}`)
-      setReviews(response.data)
+      if (!cursor) setLoading(true)
+      const params = { status: filter }
+      if (cursor) params.cursor = cursor
+      const response = await axios.get('/api/test-admin/reviews', { params })
+      setReviews(prev => (cursor ? [...prev, ...response.data] : response.data))
+      setNextCursor(response.headers['x-next-cursor'] || null)
     } catch (error) {
       console.error('Error fetching reviews:', error.response?.data || error)
-      setReviews([])
+      if (!cursor) setReviews([])
+      setNextCursor(null)
       toast.error('Failed to load reviews.')
     } finally {
       setLoading(false)
@@ -244,6 +250,16 @@ const Admin = () => {
                 )}
               </div>
             ))}
+            {nextCursor && (
+              <div className="p-4 text-center">
+                <button
+                  onClick={() => fetchReviews(nextCursor)}
+                  className="px-4 py-2 text-sm font-medium text-coffee-600 hover:text-coffee-700"
+                >
+                  Load more
+                </button>
+              </div>
+            )}
           </div>
         )}
       </div>
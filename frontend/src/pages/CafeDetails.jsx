@@ -37,9 +37,8 @@ const CafeDetails = () => {
   useEffect(() => {
     const fetchCafeData = async () => {
       try {
-        // Get all cafes and find the one we want (temporary workaround for 500 errors)
-        const cafesRes = await axios.get('/api/cafes/public/search')
-        const foundCafe = cafesRes.data.find(cafe => cafe.id === id)
+        const cafesRes = await axios.get(`/api/cafes/public/${id}`)
+        const foundCafe = cafesRes.data
         
         if (!foundCafe) {
           throw new Error('Cafe not found')
@@ -86,8 +85,8 @@ const CafeDetails = () => {
 
   const refreshCafeOnly = async () => {
     try {
-      const cafesRes = await axios.get('/api/cafes/public/search')
-      const foundCafe = cafesRes.data.find(cafe => cafe.id === id)
+      const cafesRes = await axios.get(`/api/cafes/public/${id}`)
+      const foundCafe = cafesRes.data
       if (foundCafe) {
         setCafe(foundCafe)
       }
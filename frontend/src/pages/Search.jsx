@@ -11,6 +11,10 @@ const Search = () => {
   const navigate = useNavigate()
   const [cafes, setCafes] = useState([])
   const [loading, setLoading] = useState(false)
+  // Results are paged; the cursor for the next page comes back in the X-Next-Cursor header
+  const [nextCursor, setNextCursor] = useState(null)
+  const [lastQuery, setLastQuery] = useState('')
+  const [loadingMore, setLoadingMore] = useState(false)
   const [searchQuery, setSearchQuery] = useState(searchParams.get('q') || '')
   const [viewMode, setViewMode] = useState('grid') // 'grid' or 'map'
   const [selectedCafe, setSelectedCafe] = useState(null)
@@ -48,8 +52,30 @@ const Search = () => {
     }
   }, [])
 
+  const fetchPage = async (params, cursor = null) => {
+    const query = new URLSearchParams(params)
+    if (cursor) query.set('cursor', cursor)
+    const response = await axios.get(`/api/cafes/public/search?${query}`)
+    setCafes(prev => (cursor ? [...prev, ...response.data] : response.data))
+    setNextCursor(response.headers['x-next-cursor'] || null)
+    setLastQuery(params.toString())
+  }
+
+  const loadMore = async () => {
+    setLoadingMore(true)
+    try {
+      await fetchPage(new URLSearchParams(lastQuery), nextCursor)
+    } catch (error) {
+      console.error('Error loading more cafes:', error)
+      setNextCursor(null)
+    } finally {
+      setLoadingMore(false)
+    }
+  }
+
   const searchCafes = async () => {
     setLoading(true)
+    setNextCursor(null)
     try {
       const params = new URLSearchParams()
       
@@ -70,14 +96,22 @@ const Search = () => {
               params.append('lng', position.coords.longitude.toString())
               params.append('radius', '10')
               
-              const response = await axios.get(`/api/cafes/public/search?${params}`)
-              setCafes(response.data)
+              try {
+                await fetchPage(params)
+              } catch (error) {
+                console.error('Error searching cafes:', error)
+                setCafes([])
+              }
               setLoading(false)
             },
-            () => {
+            async () => {
               // Fallback to regular search if location access denied
-              const response = axios.get(`/api/cafes/public/search?${params}`)
-              setCafes(response.data)
+              try {
+                await fetchPage(params)
+              } catch (error) {
+                console.error('Error searching cafes:', error)
+                setCafes([])
+              }
               setLoading(false)
             }
           )
@@ -85,8 +119,7 @@ const Search = () => {
         }
       }
 
-      const response = await axios.get(`/api/cafes/public/search?${params}`)
-      setCafes(response.data)
+      await fetchPage(params)
     } catch (error) {
       console.error('Error searching cafes:', error)
       setCafes([])
@@ -210,7 +243,7 @@ const Search = () => {
             <>
               <div className="flex justify-between items-center mb-6">
                 <h2 className="text-xl font-semibold text-gray-900">
-                  {cafes?.length || 0} cafes found
+                  {cafes?.length || 0}{nextCursor ? '+' : ''} cafes found
                 </h2>
                 
                 {/* View Toggle */}
@@ -307,6 +340,18 @@ const Search = () => {
                   </div>
                 </div>
               )}
+
+              {nextCursor && cafes?.length > 0 && (
+                <div className="mt-8 text-center">
+                  <button
+                    onClick={loadMore}
+                    disabled={loadingMore}
+                    className="px-4 py-2 text-sm font-medium text-coffee-600 hover:text-coffee-700 disabled:opacity-50"
+                  >
+                    {loadingMore ? 'Loading...' : 'Load more'}
+                  </button>
+                </div>
+              )}
             </>
           )}
         </div>
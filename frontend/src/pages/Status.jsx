@@ -26,9 +26,10 @@ const Status = () => {
         
         // Test 2: Database/Cafes
         try {
-          const cafesRes = await axios.get('/api/cafes/public/search')
-          if (cafesRes.data && cafesRes.data.length > 0) {
-            addTestResult('database', true, `Found ${cafesRes.data.length} cafes in database`)
+          const countRes = await axios.get('/api/cafes/public/count')
+          const cafeCount = countRes.data?.count || 0
+          if (cafeCount > 0) {
+            addTestResult('database', true, `Found ${cafeCount} cafes in database`)
             addTestResult('cafes', true, 'Cafe data is loading correctly')
           } else {
             addTestResult('database', false, 'No cafe data found - database might be empty')